@@ -19,7 +19,7 @@ public class DevSecurityConfig {
     @Bean
     public SecurityWebFilterChain devSecurityWebFilterChain(ServerHttpSecurity http) {
         ServerWebExchangeMatcher publicEndpointsMatcher = exchange -> {
-            String path = exchange.getRequest().getURI().getPath();
+            String path = exchange.getRequest().getPath().value();
             boolean matches = PathMatcherUtil.isPublicEndpoint(path);
             return matches
                     ? ServerWebExchangeMatcher.MatchResult.match()
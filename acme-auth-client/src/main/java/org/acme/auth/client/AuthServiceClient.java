@@ -1,73 +1,424 @@
 package org.acme.auth.client;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.client.RestClient;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.acme.auth.client.AuthServiceEndpoints.Endpoint;
+
 /**
  * REST client for calling the standalone auth service to look up users.
+ * <p>
+ * In micro-batching mode, {@link #lookupUser(String)} calls made within a short
+ * window are combined into one {@link #lookupUsers(Collection)} call (see
+ * {@link UserLookupBatcher}), so a cold cache does not cost one request per DN.
+ * <p>
+ * Single and batch lookups carry the auth service's ETag and {@code
+ * Cache-Control: max-age} in the returned {@link UserInfo}; {@link
+ * #revalidateUser(String, UserInfo)} uses them for conditional refreshes.
+ * <p>
+ * With several {@link AuthServiceEndpoints replicas}, each call goes to the
+ * replica with the fewest outstanding requests. With hedging enabled, a single
+ * lookup still running after the observed p95 is sent to a second replica as
+ * well and the first answer wins (the other call is cancelled); the hedge also
+ * covers a first attempt that fails. Batch lookups are balanced but not hedged.
  */
 @Slf4j
-@RequiredArgsConstructor
-public class AuthServiceClient {
+public class AuthServiceClient implements AutoCloseable {
 
     private final RestClient restClient;
+    private final UserLookupBatcher batcher;
+    private final AuthServiceEndpoints endpoints;
+    private final ExecutorService hedgeExecutor;
+
+    public AuthServiceClient(RestClient restClient) {
+        this(restClient, null, false, null, 0);
+    }
+
+    /**
+     * Creates a client in micro-batching mode.
+     *
+     * @param batchWindow  how long to collect lookups before sending a batch
+     * @param maxBatchSize batch size that triggers sending immediately
+     */
+    public AuthServiceClient(RestClient restClient, Duration batchWindow, int maxBatchSize) {
+        this(restClient, null, false, batchWindow, maxBatchSize);
+    }
+
+    /**
+     * Creates a client balancing over several replicas.
+     *
+     * @param endpoints    the replicas; request URIs are resolved against their
+     *                     base URLs instead of the RestClient's
+     * @param hedging      whether single lookups are hedged
+     * @param batchWindow  how long to collect lookups before sending a batch, or
+     *                     null to disable micro-batching
+     * @param maxBatchSize batch size that triggers sending immediately
+     */
+    public AuthServiceClient(RestClient restClient, AuthServiceEndpoints endpoints, boolean hedging,
+            Duration batchWindow, int maxBatchSize) {
+        this.restClient = restClient;
+        this.batcher = batchWindow != null ? new UserLookupBatcher(this::lookupUsers, batchWindow, maxBatchSize)
+                : null;
+        this.endpoints = endpoints;
+        this.hedgeExecutor = endpoints != null && hedging
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-lookup-hedge-", 0).factory())
+                : null;
+    }
 
     /**
      * Looks up a user by DN from the auth service.
      *
      * @param dn the Distinguished Name to look up
      * @return UserInfo with DN, name, and roles
-     * @throws BadCredentialsException if user not found or service unavailable
+     * @throws UserNotFoundException if user not found
+     * @throws BadCredentialsException if service unavailable
      */
     public UserInfo lookupUser(String dn) {
+        if (batcher != null) {
+            return join(batcher.lookup(dn));
+        }
+
+        return fetchUser(dn, null);
+    }
+
+    /**
+     * Revalidates a cached user with a conditional request: the user's ETag is
+     * sent as {@code If-None-Match}, and a 304 response costs no body transfer or
+     * deserialization. Not micro-batched.
+     *
+     * @param dn      the Distinguished Name to look up
+     * @param current the cached user
+     * @return {@code current} itself if the auth service answered 304 Not
+     *         Modified, otherwise the freshly loaded user
+     * @throws UserNotFoundException if user not found
+     * @throws BadCredentialsException if service unavailable
+     */
+    public UserInfo revalidateUser(String dn, UserInfo current) {
+        if (current.getEtag() == null) {
+            return lookupUser(dn);
+        }
+        return fetchUser(dn, current);
+    }
+
+    private UserInfo fetchUser(String dn, UserInfo current) {
+        if (endpoints == null) {
+            return fetchUser(null, dn, current);
+        }
+        Endpoint primary = endpoints.select(null);
+        Duration hedgeDelay = hedgeExecutor != null ? endpoints.hedgeDelay() : null;
+        if (hedgeDelay == null) {
+            return fetchUser(primary, dn, current);
+        }
+
+        CompletableFuture<UserInfo> first = new CompletableFuture<>();
+        Future<?> firstCall = hedgeExecutor.submit(() -> complete(first, () -> fetchUser(primary, dn, current)));
+        try {
+            return first.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("No answer from {} after {}, hedging user DN: {}", primary, hedgeDelay, dn);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UserNotFoundException notFound) {
+                throw notFound;
+            }
+            log.debug("Call to {} failed, retrying user DN on another replica: {}", primary, dn);
+        } catch (InterruptedException e) {
+            firstCall.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BadCredentialsException("Authentication service error: interrupted", e);
+        }
+        Endpoint secondary = endpoints.select(primary);
+        CompletableFuture<UserInfo> second = new CompletableFuture<>();
+        Future<?> secondCall = hedgeExecutor.submit(() -> complete(second, () -> fetchUser(secondary, dn, current)));
+        CompletableFuture<UserInfo> result = firstAnswer(first, second);
+        // Interrupting the loser makes the request factory abort its exchange, so it
+        // does not hold a connection and an outstanding slot until the read timeout
+        result.whenComplete((user, error) -> {
+            firstCall.cancel(true);
+            secondCall.cancel(true);
+        });
+        return join(result);
+    }
+
+    private UserInfo fetchUser(Endpoint endpoint, String dn, UserInfo current) {
+        if (endpoint == null) {
+            return request(null, dn, current);
+        }
+        long start = endpoint.start();
+        boolean answered = false;
+        try {
+            UserInfo user = request(endpoint, dn, current);
+            answered = true;
+            return user;
+        } catch (UserNotFoundException e) {
+            answered = true;
+            throw e;
+        } finally {
+            endpoint.finish(endpoints, start, answered);
+        }
+    }
+
+    private UserInfo request(Endpoint endpoint, String dn, UserInfo current) {
         log.debug("Calling auth service for user DN: {}", dn);
 
         try {
-            UserInfoResponse response = restClient.get()
-                    .uri("/api/auth/users/{dn}", dn)
+            ResponseEntity<UserInfoResponse> entity = restClient.get()
+                    .uri(uri(endpoint, "/api/auth/users/{dn}"), dn)
+                    .headers(headers -> {
+                        if (current != null) {
+                            headers.setIfNoneMatch(current.getEtag());
+                        }
+                    })
                     .retrieve()
                     .onStatus(status -> status.value() == 404, (request, response1) -> {
                         log.warn("User not found in auth service: {}", dn);
-                        throw new BadCredentialsException("User not found: " + dn);
+                        throw new UserNotFoundException(dn);
                     })
-                    .body(UserInfoResponse.class);
+                    .toEntity(UserInfoResponse.class);
+
+            if (current != null && entity.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                log.debug("User not modified: {}", dn);
+                return current;
+            }
 
+            UserInfoResponse response = entity.getBody();
             if (response == null) {
                 log.warn("User not found in auth service: {}", dn);
-                throw new BadCredentialsException("User not found: " + dn);
+                throw new UserNotFoundException(dn);
             }
 
             log.debug("User found: subjectDn={}, issuerDn={}, givenName={}, surname={}, roles={}",
                     response.subjectDn(), response.issuerDn(), response.givenName(), response.surname(),
                     response.roles());
 
-            return UserInfo.builder()
-                    .subjectDn(response.subjectDn())
-                    .issuerDn(response.issuerDn())
-                    .givenName(response.givenName())
-                    .surname(response.surname())
-                    .roles(response.roles())
-                    .build();
+            return response.toUserInfo(entity.getHeaders());
         } catch (Exception e) {
             if (e instanceof BadCredentialsException) {
                 throw e;
             }
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled hedge: the other call already answered
+                log.debug("Call to auth service cancelled for user DN: {}", dn);
+                throw new BadCredentialsException("Authentication service error: cancelled", e);
+            }
             log.error("Error calling auth service for user DN: {}", dn, e);
             throw new BadCredentialsException("Authentication service error: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Looks up several users with one call to the auth service's batch endpoint.
+     *
+     * @param dns the Distinguished Names to look up
+     * @return users keyed by the requested DN; unknown DNs are omitted
+     * @throws BadCredentialsException if the service is unavailable
+     */
+    public Map<String, UserInfo> lookupUsers(Collection<String> dns) {
+        log.debug("Calling auth service for {} user DNs", dns.size());
+
+        Endpoint endpoint = endpoints != null ? endpoints.select(null) : null;
+        if (endpoint != null) {
+            endpoint.start();
+        }
+        try {
+            Map<String, UserInfoResponse> response = restClient.post()
+                    .uri(uri(endpoint, "/api/auth/users/batch"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(dns)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, UserInfoResponse>>() {
+                    });
+
+            Map<String, UserInfo> users = new LinkedHashMap<>();
+            if (response != null) {
+                response.forEach((dn, user) -> users.put(dn, user.toUserInfo()));
+            }
+            log.debug("Found {} of {} users", users.size(), dns.size());
+            return users;
+        } catch (Exception e) {
+            log.error("Error calling auth service for {} user DNs", dns.size(), e);
+            throw new BadCredentialsException("Authentication service error: " + e.getMessage(), e);
+        } finally {
+            if (endpoint != null) {
+                // Not recorded: batch latencies would inflate the single-lookup p95
+                endpoint.finish();
+            }
+        }
+    }
+
+    /**
+     * Returns the DNs the auth service looked up most recently and frequently
+     * (used to warm up user caches). Auth services without this endpoint yield
+     * an empty list.
+     *
+     * @param limit maximum number of DNs
+     * @return the DNs, hottest first
+     * @throws BadCredentialsException if the service is unavailable
+     */
+    public List<String> recentUsers(int limit) {
+        log.debug("Calling auth service for up to {} recently active user DNs", limit);
+
+        Endpoint endpoint = endpoints != null ? endpoints.select(null) : null;
+        try {
+            List<String> dns = restClient.get()
+                    .uri(uri(endpoint, "/api/auth/users/recent?limit={limit}"), limit)
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                            log.info("Auth service does not report recently active users");
+                            return List.of();
+                        }
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new IllegalStateException("status " + response.getStatusCode().value());
+                        }
+                        return response.bodyTo(new ParameterizedTypeReference<List<String>>() {
+                        });
+                    });
+            return dns != null ? dns : List.of();
+        } catch (Exception e) {
+            log.error("Error calling auth service for recently active user DNs", e);
+            throw new BadCredentialsException("Authentication service error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private static String uri(Endpoint endpoint, String path) {
+        // An absolute URI template takes precedence over the RestClient's base URL
+        return endpoint != null ? endpoint.baseUrl() + path : path;
+    }
+
+    /**
+     * Completes with the first answer (a user or {@link UserNotFoundException});
+     * fails only if both calls fail, with the last failure.
+     */
+    private static CompletableFuture<UserInfo> firstAnswer(CompletableFuture<UserInfo> first,
+            CompletableFuture<UserInfo> second) {
+        CompletableFuture<UserInfo> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<UserInfo> call : List.of(first, second)) {
+            call.whenComplete((user, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                if (cause == null) {
+                    result.complete(user);
+                } else if (cause instanceof UserNotFoundException || failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(cause);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> call) {
+        try {
+            future.complete(call.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Response DTO from auth service. This matches the structure of
-     * org.acme.auth.service.dto.UserInfoResponse but is defined here to avoid
+     * org.acme.auth.service.dto.UserInfoResponse (and, with {@code etag} and
+     * {@code maxAge}, BatchUserInfoResponse) but is defined here to avoid
      * creating a dependency from the client to the service module.
+     *
+     * @param etag   entity tag, only set in batch responses (single lookups send
+     *               it as a header)
+     * @param maxAge {@code Cache-Control: max-age} in seconds, only set in batch
+     *               responses
      */
     public record UserInfoResponse(String subjectDn, String issuerDn, String givenName, String surname,
-            List<String> roles) {
+            List<String> roles, String etag, Long maxAge) {
+
+        private static final String MAX_AGE = "max-age=";
+
+        /**
+         * Maps this response to the {@link UserInfo} used by the security modules,
+         * carrying the ETag and max-age from the body, if any.
+         */
+        public UserInfo toUserInfo() {
+            return toUserInfo(etag, maxAge != null ? Duration.ofSeconds(maxAge) : null);
+        }
+
+        /**
+         * Maps this response to a {@link UserInfo} carrying the response's ETag and
+         * {@code Cache-Control: max-age}, if any.
+         */
+        public UserInfo toUserInfo(HttpHeaders headers) {
+            return toUserInfo(headers.getETag(), maxAge(headers));
+        }
+
+        private UserInfo toUserInfo(String etag, Duration maxAge) {
+            return UserInfo.builder()
+                    .subjectDn(subjectDn)
+                    .issuerDn(issuerDn)
+                    .givenName(givenName)
+                    .surname(surname)
+                    .roles(roles)
+                    .etag(etag)
+                    .maxAge(maxAge)
+                    .build();
+        }
+
+        private static Duration maxAge(HttpHeaders headers) {
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl == null) {
+                return null;
+            }
+            for (String directive : cacheControl.split(",")) {
+                String trimmed = directive.trim();
+                if (trimmed.regionMatches(true, 0, MAX_AGE, 0, MAX_AGE.length())) {
+                    try {
+                        return Duration.ofSeconds(Long.parseLong(trimmed.substring(MAX_AGE.length())));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
     }
 }
@@ -1,35 +1,100 @@
 package org.acme.auth.client;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 /**
  * Configuration for AuthServiceClient bean. Provides a RestClient configured
  * with the auth service base URL.
  * <p>
- * If SSL is enabled (via {@code auth.service.ssl.enabled=true}), this will use
- * the SSL-configured ClientHttpRequestFactory provided by the security module's
- * SslConfig. Otherwise, it creates a default RestClient.
+ * Uses the ClientHttpRequestFactory provided by the security module's
+ * AuthServiceTransportConfig (pooled or HTTP/2, over SSL if
+ * {@code auth.service.ssl.enabled=true}) when present. Otherwise, it uses a JDK
+ * HttpClient with {@code auth.service.connect-timeout} (default 2s) and
+ * {@code auth.service.read-timeout} (default 3s), so a slow auth service cannot
+ * hold request threads indefinitely.
+ * <p>
+ * With {@code auth.service.batch.enabled=true}, concurrent lookups are
+ * micro-batched: misses collected within {@code auth.service.batch.window}
+ * (default 2ms) or up to {@code auth.service.batch.max-size} DNs (default 64)
+ * are resolved with one call to the batch endpoint.
+ * <p>
+ * With several replicas in {@code auth.service.base-urls} (comma-separated;
+ * defaults to {@code auth.service.base-url}), calls are balanced by
+ * outstanding requests, and {@code auth.service.hedging.enabled=true} hedges
+ * single lookups slower than the observed p95 (at least
+ * {@code auth.service.hedging.min-delay}, default 10ms) on a second replica
+ * (see {@link AuthServiceEndpoints}).
+ * <p>
+ * With {@code auth.service.wire-format=smile} (or {@code cbor}), lookups ask for
+ * a binary body instead of JSON (see {@link AuthServiceWireFormat}).
+ * <p>
+ * With {@code auth.service.changes.enabled=true}, the {@link UserChangeSubscriber}
+ * follows the auth service change stream so user caches can be invalidated as
+ * soon as a user changes, moving to another replica when the stream fails.
  */
 @Configuration
 public class AuthServiceClientConfig {
 
     @Bean
     public AuthServiceClient authServiceClient(
-            @Value("${auth.service.base-url:http://localhost:8082}") String authServiceBaseUrl,
-            @Autowired(required = false) Optional<ClientHttpRequestFactory> sslClientHttpRequestFactory) {
+            @Value("${auth.service.base-urls:${auth.service.base-url:http://localhost:8082}}") List<String> baseUrls,
+            @Value("${auth.service.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${auth.service.hedging.min-delay:10ms}") Duration hedgingMinDelay,
+            @Value("${auth.service.batch.enabled:false}") boolean batchEnabled,
+            @Value("${auth.service.batch.window:2ms}") Duration batchWindow,
+            @Value("${auth.service.batch.max-size:64}") int batchMaxSize,
+            @Value("${auth.service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${auth.service.read-timeout:3s}") Duration readTimeout,
+            @Value("${auth.service.wire-format:json}") AuthServiceWireFormat wireFormat,
+            @Autowired(required = false) Optional<ClientHttpRequestFactory> clientHttpRequestFactory) {
 
         RestClient.Builder builder = RestClient.builder()
-                .baseUrl(authServiceBaseUrl);
+                .baseUrl(baseUrls.get(0))
+                .defaultHeaders(headers -> headers.setAccept(wireFormat.requireAvailable().accept()))
+                .requestFactory(clientHttpRequestFactory
+                        .orElseGet(() -> requestFactory(connectTimeout, readTimeout)));
+
+        AuthServiceEndpoints endpoints = baseUrls.size() > 1
+                ? new AuthServiceEndpoints(baseUrls, hedgingMinDelay)
+                : null;
+        return new AuthServiceClient(builder.build(), endpoints, hedgingEnabled, batchEnabled ? batchWindow : null,
+                batchMaxSize);
+    }
 
-        sslClientHttpRequestFactory.ifPresent(builder::requestFactory);
+    @Bean
+    public UserChangeSubscriber userChangeSubscriber(
+            @Value("${auth.service.base-urls:${auth.service.base-url:http://localhost:8082}}") List<String> baseUrls,
+            @Value("${auth.service.changes.enabled:false}") boolean changesEnabled,
+            @Value("${auth.service.changes.reconnect-delay:5s}") Duration reconnectDelay,
+            @Autowired(required = false) @Qualifier("authServiceStreamingClientHttpRequestFactory")
+            Optional<ClientHttpRequestFactory> streamingClientHttpRequestFactory) {
+
+        RestClient.Builder builder = RestClient.builder();
+
+        streamingClientHttpRequestFactory.ifPresent(builder::requestFactory);
+
+        // Own instance: the stream is not a lookup and must not feed the hedging p95
+        return new UserChangeSubscriber(builder.build(), new AuthServiceEndpoints(baseUrls, Duration.ZERO),
+                changesEnabled, reconnectDelay);
+    }
 
-        return new AuthServiceClient(builder.build());
+    private static ClientHttpRequestFactory requestFactory(Duration connectTimeout, Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build());
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
     }
 }
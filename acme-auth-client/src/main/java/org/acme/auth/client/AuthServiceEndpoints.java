@@ -0,0 +1,156 @@
+package org.acme.auth.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The auth service replicas a client spreads its calls over.
+ * <p>
+ * {@link #select(Endpoint)} picks the replica with the fewest outstanding
+ * requests (ties are rotated), so a slow replica automatically receives less
+ * traffic. Latencies of answered single lookups feed a sliding p95 that the
+ * clients use as the hedging delay: a call still running after
+ * {@link #hedgeDelay()} is duplicated on another replica and the first answer
+ * wins. Batch calls count as outstanding requests but their latencies, which
+ * grow with the batch size, are not recorded.
+ */
+public class AuthServiceEndpoints {
+
+    private static final int LATENCY_SAMPLES = 512;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final List<Endpoint> endpoints;
+    private final long minHedgeDelayNanos;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    // Latency ring buffer, guarded by itself
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int samples;
+    private int nextSample;
+    private volatile long p95Nanos = -1;
+
+    /**
+     * @param baseUrls      the replicas' base URLs
+     * @param minHedgeDelay lower bound for the hedging delay, so a fast p95 does
+     *                      not duplicate a large share of calls
+     */
+    public AuthServiceEndpoints(List<String> baseUrls, Duration minHedgeDelay) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one auth service base URL is required");
+        }
+        this.endpoints = baseUrls.stream().map(Endpoint::new).toList();
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+    }
+
+    public List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Picks the replica with the fewest outstanding requests.
+     *
+     * @param exclude replica to avoid (the one a hedged call already runs on), or
+     *                null; ignored if it is the only replica
+     */
+    public Endpoint select(Endpoint exclude) {
+        int size = endpoints.size();
+        int start = Math.floorMod(rotation.getAndIncrement(), size);
+        Endpoint best = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((start + i) % size);
+            if (candidate == exclude && size > 1) {
+                continue;
+            }
+            if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Delay after which a call should be hedged: the p95 of recent answered calls
+     * (at least the configured minimum), or null while there are too few samples
+     * or only one replica.
+     */
+    public Duration hedgeDelay() {
+        long p95 = p95Nanos;
+        if (p95 < 0 || endpoints.size() < 2) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(p95, minHedgeDelayNanos));
+    }
+
+    /**
+     * Records the latency of a call the auth service answered (including 404s);
+     * failed calls are not recorded.
+     */
+    void recordLatency(long nanos) {
+        long[] snapshot = null;
+        synchronized (latencies) {
+            latencies[nextSample] = nanos;
+            nextSample = (nextSample + 1) % LATENCY_SAMPLES;
+            samples = Math.min(samples + 1, LATENCY_SAMPLES);
+            if (samples >= MIN_SAMPLES && (p95Nanos < 0 || nextSample % RECOMPUTE_INTERVAL == 0)) {
+                snapshot = Arrays.copyOf(latencies, samples);
+            }
+        }
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            p95Nanos = snapshot[(int) Math.ceil(snapshot.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * One auth service replica and its number of in-flight requests.
+     */
+    public static final class Endpoint {
+
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        Endpoint(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String baseUrl() {
+            return baseUrl;
+        }
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * Marks a request to this replica as started; returns its start time for
+         * {@link #finish(AuthServiceEndpoints, long, boolean)}.
+         */
+        long start() {
+            outstanding.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void finish(AuthServiceEndpoints endpoints, long startNanos, boolean answered) {
+            finish();
+            if (answered) {
+                endpoints.recordLatency(System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * Marks a request to this replica as finished without recording its
+         * latency (batch calls, which are not comparable to single lookups).
+         */
+        void finish() {
+            outstanding.decrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            return baseUrl;
+        }
+    }
+}
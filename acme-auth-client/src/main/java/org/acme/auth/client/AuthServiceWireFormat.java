@@ -0,0 +1,70 @@
+package org.acme.auth.client;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Body format the auth clients ask the auth services for
+ * ({@code auth.service.wire-format}).
+ * <p>
+ * The binary formats are Jackson's Smile and CBOR encodings of the same
+ * objects: no change to the DTOs, but smaller bodies that are cheaper to encode
+ * and decode than JSON text. Spring registers their message converters and
+ * codecs on both sides whenever the Jackson data format module is on the
+ * classpath (see the {@code jackson-binary} Maven profile). The client still
+ * accepts JSON, so an auth service without the module keeps answering in JSON.
+ */
+public enum AuthServiceWireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, "com.fasterxml.jackson.databind.ObjectMapper"),
+
+    SMILE(new MediaType("application", "x-jackson-smile"), "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+
+    CBOR(MediaType.APPLICATION_CBOR, "com.fasterxml.jackson.dataformat.cbor.CBORFactory");
+
+    private static final MediaType JSON_FALLBACK = MediaType.parseMediaType("application/json;q=0.5");
+
+    private final MediaType mediaType;
+    private final String jacksonFactoryClass;
+
+    AuthServiceWireFormat(MediaType mediaType, String jacksonFactoryClass) {
+        this.mediaType = mediaType;
+        this.jacksonFactoryClass = jacksonFactoryClass;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * {@code Accept} header for requests to the auth service: this format,
+     * followed by JSON with a lower quality for binary formats.
+     */
+    public List<MediaType> accept() {
+        return this == JSON ? List.of(mediaType) : List.of(mediaType, JSON_FALLBACK);
+    }
+
+    /**
+     * Whether the Jackson module for this format is on the classpath, i.e.
+     * whether Spring can decode it.
+     */
+    public boolean isAvailable() {
+        return ClassUtils.isPresent(jacksonFactoryClass, AuthServiceWireFormat.class.getClassLoader());
+    }
+
+    /**
+     * Fails fast if this format cannot be decoded, rather than failing on every
+     * lookup once an auth service answers in it.
+     *
+     * @throws IllegalStateException if the Jackson module is missing
+     */
+    public AuthServiceWireFormat requireAvailable() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("auth.service.wire-format=" + name().toLowerCase()
+                    + " requires " + jacksonFactoryClass + " on the classpath (Maven profile jackson-binary)");
+        }
+        return this;
+    }
+}
@@ -0,0 +1,166 @@
+package org.acme.auth.client;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.core.publisher.Mono;
+
+import org.acme.auth.client.AuthServiceClient.UserInfoResponse;
+import org.acme.auth.client.AuthServiceEndpoints.Endpoint;
+
+/**
+ * Non-blocking counterpart of {@link AuthServiceClient} backed by a
+ * {@link WebClient}. Intended for WebFlux applications so that user lookups
+ * run on the event loop instead of pinning a blocking scheduler thread.
+ * <p>
+ * Error semantics match {@link AuthServiceClient}: every failure is surfaced
+ * as a {@link BadCredentialsException}. Replica balancing and hedging also
+ * work as in {@link AuthServiceClient}; the hedge timer starts when the first
+ * call is subscribed.
+ */
+@Slf4j
+public class ReactiveAuthServiceClient {
+
+    private final WebClient webClient;
+    private final AuthServiceEndpoints endpoints;
+    private final boolean hedging;
+
+    public ReactiveAuthServiceClient(WebClient webClient) {
+        this(webClient, null, false);
+    }
+
+    /**
+     * Creates a client balancing over several replicas.
+     *
+     * @param endpoints the replicas; request URIs are resolved against their base
+     *                  URLs instead of the WebClient's
+     * @param hedging   whether lookups are hedged
+     */
+    public ReactiveAuthServiceClient(WebClient webClient, AuthServiceEndpoints endpoints, boolean hedging) {
+        this.webClient = webClient;
+        this.endpoints = endpoints;
+        this.hedging = hedging;
+    }
+
+    /**
+     * Looks up a user by DN from the auth service.
+     *
+     * @param dn the Distinguished Name to look up
+     * @return Mono emitting UserInfo with DN, name, and roles, or erroring with
+     *         {@link UserNotFoundException} if the user is not found or
+     *         {@link BadCredentialsException} if the service is unavailable
+     */
+    public Mono<UserInfo> lookupUser(String dn) {
+        return fetchUser(dn, null);
+    }
+
+    /**
+     * Revalidates a cached user with {@code If-None-Match}, as
+     * {@link AuthServiceClient#revalidateUser(String, UserInfo)} does.
+     *
+     * @param dn      the Distinguished Name to look up
+     * @param current the cached user
+     * @return Mono emitting {@code current} itself on 304 Not Modified, otherwise
+     *         the freshly loaded user
+     */
+    public Mono<UserInfo> revalidateUser(String dn, UserInfo current) {
+        return fetchUser(dn, current.getEtag() != null ? current : null);
+    }
+
+    private Mono<UserInfo> fetchUser(String dn, UserInfo current) {
+        if (endpoints == null) {
+            return request(null, dn, current);
+        }
+        return Mono.defer(() -> {
+            Endpoint primary = endpoints.select(null);
+            Duration hedgeDelay = hedging ? endpoints.hedgeDelay() : null;
+            if (hedgeDelay == null) {
+                return fetchUser(primary, dn, current);
+            }
+            // A 404 is an answer, not a failure: carry it as an empty value so it wins
+            // the race instead of waiting for the hedge
+            Mono<Optional<UserInfo>> first = answer(fetchUser(primary, dn, current));
+            Mono<Optional<UserInfo>> hedge = Mono.delay(hedgeDelay)
+                    .then(Mono.defer(() -> {
+                        Endpoint secondary = endpoints.select(primary);
+                        log.debug("No answer from {} after {}, hedging user DN on {}: {}", primary, hedgeDelay,
+                                secondary, dn);
+                        return answer(fetchUser(secondary, dn, current));
+                    }));
+            return Mono.firstWithValue(first, hedge)
+                    .flatMap(user -> user.map(Mono::just).orElseGet(() -> Mono.error(new UserNotFoundException(dn))))
+                    .onErrorMap(e -> !(e instanceof BadCredentialsException),
+                            e -> new BadCredentialsException("Authentication service error: " + e.getMessage(), e));
+        });
+    }
+
+    private Mono<UserInfo> fetchUser(Endpoint endpoint, String dn, UserInfo current) {
+        return Mono.defer(() -> {
+            long start = endpoint.start();
+            // Exactly one of value, error or cancel ends the request
+            AtomicBoolean finished = new AtomicBoolean();
+            return request(endpoint, dn, current)
+                    .doOnEach(signal -> {
+                        if ((signal.isOnNext() || signal.isOnError()) && finished.compareAndSet(false, true)) {
+                            endpoint.finish(endpoints, start, signal.isOnNext()
+                                    || signal.getThrowable() instanceof UserNotFoundException);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            endpoint.finish(endpoints, start, false);
+                        }
+                    });
+        });
+    }
+
+    private static Mono<Optional<UserInfo>> answer(Mono<UserInfo> call) {
+        return call.map(Optional::of)
+                .onErrorResume(UserNotFoundException.class, e -> Mono.just(Optional.empty()));
+    }
+
+    private Mono<UserInfo> request(Endpoint endpoint, String dn, UserInfo current) {
+        log.debug("Calling auth service (reactive) for user DN: {}", dn);
+
+        return webClient.get()
+                .uri(endpoint != null ? endpoint.baseUrl() + "/api/auth/users/{dn}" : "/api/auth/users/{dn}", dn)
+                .headers(headers -> {
+                    if (current != null) {
+                        headers.setIfNoneMatch(current.getEtag());
+                    }
+                })
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), response -> {
+                    log.warn("User not found in auth service: {}", dn);
+                    return response.releaseBody()
+                            .then(Mono.error(new UserNotFoundException(dn)));
+                })
+                .toEntity(UserInfoResponse.class)
+                .flatMap(entity -> {
+                    if (current != null && entity.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        log.debug("User not modified: {}", dn);
+                        return Mono.just(current);
+                    }
+                    UserInfoResponse response = entity.getBody();
+                    if (response == null) {
+                        log.warn("User not found in auth service: {}", dn);
+                        return Mono.error(new UserNotFoundException(dn));
+                    }
+                    log.debug("User found: subjectDn={}, issuerDn={}, givenName={}, surname={}, roles={}",
+                            response.subjectDn(), response.issuerDn(), response.givenName(), response.surname(),
+                            response.roles());
+                    return Mono.just(response.toUserInfo(entity.getHeaders()));
+                })
+                .onErrorMap(e -> !(e instanceof BadCredentialsException), e -> {
+                    log.error("Error calling auth service for user DN: {}", dn, e);
+                    return new BadCredentialsException("Authentication service error: " + e.getMessage(), e);
+                });
+    }
+}
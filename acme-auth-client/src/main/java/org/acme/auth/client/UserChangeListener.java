@@ -0,0 +1,22 @@
+package org.acme.auth.client;
+
+/**
+ * Receives events from the auth service change stream (see
+ * {@link UserChangeSubscriber}).
+ */
+public interface UserChangeListener {
+
+    /**
+     * A user's data or roles changed.
+     *
+     * @param subjectDn the subject DN as stored by the auth service (not
+     *                  normalized)
+     */
+    void userChanged(String subjectDn);
+
+    /**
+     * Changes may have been missed (e.g. after a reconnect); anything derived
+     * from earlier lookups should be discarded.
+     */
+    void resync();
+}
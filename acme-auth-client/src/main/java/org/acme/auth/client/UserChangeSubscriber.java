@@ -0,0 +1,183 @@
+package org.acme.auth.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.client.AuthServiceEndpoints.Endpoint;
+
+/**
+ * Subscribes to the auth service change stream ({@code GET /api/auth/changes},
+ * server-sent events) and forwards its events to a {@link UserChangeListener}.
+ * <p>
+ * The stream is read on a virtual thread and reconnected after
+ * {@code reconnectDelay} whenever it fails or ends, to another replica when
+ * there are several (see {@link AuthServiceEndpoints}). Every (re)connect is
+ * reported as {@link UserChangeListener#resync()}, since changes made while
+ * not subscribed are not replayed. Auth services without a change stream
+ * (404) are logged once and not retried; caches then rely on their TTLs.
+ */
+@Slf4j
+public class UserChangeSubscriber implements AutoCloseable {
+
+    static final String CHANGES_PATH = "/api/auth/changes";
+    static final String USER_CHANGED_EVENT = "user-changed";
+    static final String RESYNC_EVENT = "resync";
+
+    private final RestClient restClient;
+    private final AuthServiceEndpoints endpoints;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+
+    private final CountDownLatch synced = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param restClient client without a base URL; requests go to the replica
+     *                   picked from {@code endpoints}
+     * @param endpoints  the auth service replicas to subscribe to
+     */
+    public UserChangeSubscriber(RestClient restClient, AuthServiceEndpoints endpoints, boolean enabled,
+            Duration reconnectDelay) {
+        this.restClient = restClient;
+        this.endpoints = endpoints;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * Starts reading the change stream in the background. Does nothing if the
+     * subscriber is disabled.
+     *
+     * @param listener receives the stream's events
+     */
+    public synchronized void start(UserChangeListener listener) {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofVirtual().name("auth-change-stream").start(() -> subscribe(listener));
+    }
+
+    /**
+     * Waits for the first connection to the change stream, i.e. until the
+     * listener received its initial {@link UserChangeListener#resync()} (or the
+     * auth service turned out not to have a change stream). Caches filled after
+     * this are only invalidated by actual changes.
+     *
+     * @param timeout how long to wait at most
+     * @return false if the timeout elapsed first; true right away when disabled
+     */
+    public boolean awaitSynced(Duration timeout) throws InterruptedException {
+        return !enabled || synced.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void subscribe(UserChangeListener listener) {
+        Endpoint endpoint = null;
+        while (running) {
+            // The stream is not counted as outstanding: it would skew lookups away from its replica
+            endpoint = endpoints.select(endpoint);
+            Endpoint replica = endpoint;
+            try {
+                boolean supported = restClient.get()
+                        .uri(replica.baseUrl() + CHANGES_PATH)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .exchange((request, response) -> {
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                                return false;
+                            }
+                            if (!response.getStatusCode().is2xxSuccessful()) {
+                                throw new IllegalStateException("status " + response.getStatusCode().value());
+                            }
+                            log.info("Subscribed to auth service change stream at {}", replica);
+                            listener.resync();
+                            synced.countDown();
+                            read(response.getBody(), listener);
+                            return true;
+                        });
+                if (!supported) {
+                    synced.countDown();
+                    log.info("Auth service has no change stream ({} not found at {}); relying on cache TTLs",
+                            CHANGES_PATH, replica);
+                    return;
+                }
+                if (running) {
+                    log.warn("Auth service change stream at {} ended, reconnecting in {}", replica, reconnectDelay);
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Auth service change stream at {} failed, reconnecting in {}: {}", replica, reconnectDelay,
+                        e.getMessage());
+            }
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads server-sent events until the stream ends, dispatching
+     * {@value #USER_CHANGED_EVENT} and {@value #RESYNC_EVENT} events. Comments
+     * (heartbeats) and unknown events are ignored.
+     */
+    static void read(InputStream body, UserChangeListener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String event = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                dispatch(event, data.toString(), listener);
+                event = null;
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                event = fieldValue(line, "event:".length());
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(fieldValue(line, "data:".length()));
+            }
+        }
+    }
+
+    private static void dispatch(String event, String data, UserChangeListener listener) {
+        if (USER_CHANGED_EVENT.equals(event) && !data.isEmpty()) {
+            log.debug("User changed: {}", data);
+            listener.userChanged(data);
+        } else if (RESYNC_EVENT.equals(event)) {
+            log.debug("Change stream resync requested");
+            listener.resync();
+        }
+    }
+
+    private static String fieldValue(String line, int start) {
+        // A single space after the colon is not part of the value
+        return line.startsWith(" ", start) ? line.substring(start + 1) : line.substring(start);
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
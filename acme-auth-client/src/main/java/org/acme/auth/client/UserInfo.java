@@ -1,5 +1,6 @@
 package org.acme.auth.client;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 
@@ -11,7 +12,6 @@ import lombok.Builder;
 import lombok.Getter;
 
 @Getter
-@Builder
 public class UserInfo implements UserDetails {
 
     private final String subjectDn;
@@ -20,12 +20,32 @@ public class UserInfo implements UserDetails {
     private final String surname;
     private final List<String> roles;
 
+    /**
+     * Entity tag the auth service sent with this user (for {@code If-None-Match}
+     * revalidation), or null if none.
+     */
+    private final String etag;
+
+    /**
+     * How long the auth service allows this user to be used before revalidating
+     * ({@code Cache-Control: max-age}), or null if it did not say.
+     */
+    private final Duration maxAge;
+
     public UserInfo(String subjectDn, String issuerDn, String givenName, String surname, List<String> roles) {
+        this(subjectDn, issuerDn, givenName, surname, roles, null, null);
+    }
+
+    @Builder
+    public UserInfo(String subjectDn, String issuerDn, String givenName, String surname, List<String> roles,
+            String etag, Duration maxAge) {
         this.subjectDn = subjectDn;
         this.issuerDn = issuerDn;
         this.givenName = givenName;
         this.surname = surname;
         this.roles = roles != null ? roles : List.of();
+        this.etag = etag;
+        this.maxAge = maxAge;
     }
 
     @Override
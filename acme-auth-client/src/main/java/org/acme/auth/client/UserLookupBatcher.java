@@ -0,0 +1,124 @@
+package org.acme.auth.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects concurrent user lookups for a short window and resolves them with a
+ * single batch call.
+ * <p>
+ * The first lookup of a batch starts the window; the batch is sent when the
+ * window elapses or when it reaches the maximum size, whichever comes first.
+ * Lookups for a DN already in the pending batch share its future. DNs missing
+ * from the batch response fail with {@link UserNotFoundException}; a failed
+ * batch call fails every lookup in the batch with the same exception.
+ */
+@Slf4j
+public class UserLookupBatcher implements AutoCloseable {
+
+    private final Function<List<String>, Map<String, UserInfo>> batchLookup;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<UserInfo>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param batchLookup  resolves a list of DNs; returns users keyed by DN
+     * @param window       how long to collect lookups before sending a batch
+     * @param maxBatchSize batch size that triggers sending immediately
+     */
+    public UserLookupBatcher(Function<List<String>, Map<String, UserInfo>> batchLookup, Duration window,
+            int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1: " + maxBatchSize);
+        }
+        this.batchLookup = batchLookup;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("auth-lookup-batcher").daemon().factory());
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-lookup-batch-", 0).factory());
+    }
+
+    /**
+     * Adds a DN to the pending batch.
+     *
+     * @return future completed with the user, or failed with
+     *         {@link UserNotFoundException} or the batch call's exception
+     */
+    public CompletableFuture<UserInfo> lookup(String dn) {
+        Map<String, CompletableFuture<UserInfo>> full = null;
+        CompletableFuture<UserInfo> future;
+        synchronized (lock) {
+            future = pending.get(dn);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(dn, future);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1) {
+                Map<String, CompletableFuture<UserInfo>> batch = pending;
+                scheduler.schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        executor.shutdown();
+    }
+
+    private void flush(Map<String, CompletableFuture<UserInfo>> batch) {
+        synchronized (lock) {
+            // Already sent because it reached the maximum size
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, CompletableFuture<UserInfo>> batch) {
+        executor.execute(() -> resolve(batch));
+    }
+
+    private void resolve(Map<String, CompletableFuture<UserInfo>> batch) {
+        log.debug("Resolving batch of {} user lookups", batch.size());
+        try {
+            Map<String, UserInfo> users = batchLookup.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((dn, future) -> {
+                UserInfo user = users.get(dn);
+                if (user != null) {
+                    future.complete(user);
+                } else {
+                    future.completeExceptionally(new UserNotFoundException(dn));
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
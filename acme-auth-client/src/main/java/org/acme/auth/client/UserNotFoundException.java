@@ -0,0 +1,15 @@
+package org.acme.auth.client;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Thrown when the auth service reports that no user exists for a DN (HTTP
+ * 404). Distinguished from other {@link BadCredentialsException}s so callers
+ * can cache the negative result; service errors must not be cached.
+ */
+public class UserNotFoundException extends BadCredentialsException {
+
+    public UserNotFoundException(String dn) {
+        super("User not found: " + dn);
+    }
+}
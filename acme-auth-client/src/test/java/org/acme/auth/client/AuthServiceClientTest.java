@@ -0,0 +1,182 @@
+package org.acme.auth.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.acme.auth.client.AuthServiceClient.UserInfoResponse;
+import org.acme.auth.client.AuthServiceEndpoints.Endpoint;
+
+class AuthServiceClientTest {
+
+    private static final String USER_URL = "http://auth/api/auth/users/cn%3Djdoe";
+    private static final String USER_JSON = """
+            {"subjectDn":"cn=jdoe","issuerDn":"cn=ca","givenName":"John","surname":"Doe","roles":["ACME_READ_ONLY"]}
+            """;
+
+    private final RestClient.Builder builder = RestClient.builder().baseUrl("http://auth");
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+    private final AuthServiceClient client = new AuthServiceClient(builder.build());
+
+    private static HttpHeaders cacheHeaders(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl("max-age=60, private");
+        return headers;
+    }
+
+    @Test
+    void lookupUser_shouldKeepETagAndMaxAge() {
+        server.expect(requestTo(USER_URL))
+                .andRespond(withSuccess(USER_JSON, MediaType.APPLICATION_JSON).headers(cacheHeaders("\"v1\"")));
+
+        UserInfo user = client.lookupUser("cn=jdoe");
+
+        assertEquals("\"v1\"", user.getEtag());
+        assertEquals(Duration.ofSeconds(60), user.getMaxAge());
+        server.verify();
+    }
+
+    @Test
+    void lookupUsers_shouldKeepETagAndMaxAgeFromBody() {
+        server.expect(requestTo("http://auth/api/auth/users/batch"))
+                .andRespond(withSuccess("""
+                        {"cn=jdoe":{"subjectDn":"cn=jdoe","issuerDn":"cn=ca","givenName":"John","surname":"Doe",\
+                        "roles":["ACME_READ_ONLY"],"etag":"\\"v1\\"","maxAge":60}}
+                        """, MediaType.APPLICATION_JSON));
+
+        UserInfo user = client.lookupUsers(List.of("cn=jdoe")).get("cn=jdoe");
+
+        assertEquals("\"v1\"", user.getEtag());
+        assertEquals(Duration.ofSeconds(60), user.getMaxAge());
+        server.verify();
+    }
+
+    @Test
+    void revalidateUser_shouldReturnCurrentUser_onNotModified() {
+        UserInfo current = UserInfo.builder().subjectDn("cn=jdoe").etag("\"v1\"").build();
+        server.expect(requestTo(USER_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(cacheHeaders("\"v1\"")));
+
+        assertSame(current, client.revalidateUser("cn=jdoe", current));
+        server.verify();
+    }
+
+    @Test
+    void revalidateUser_shouldReturnNewUser_whenChanged() {
+        UserInfo current = UserInfo.builder().subjectDn("cn=jdoe").etag("\"v1\"").build();
+        server.expect(requestTo(USER_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withSuccess(USER_JSON, MediaType.APPLICATION_JSON).headers(cacheHeaders("\"v2\"")));
+
+        UserInfo refreshed = client.revalidateUser("cn=jdoe", current);
+
+        assertNotSame(current, refreshed);
+        assertEquals("\"v2\"", refreshed.getEtag());
+        assertEquals("John", refreshed.getGivenName());
+        server.verify();
+    }
+
+    @Test
+    void lookupUser_shouldAcceptJson_whenBinaryFormatPreferred() {
+        RestClient.Builder smileBuilder = RestClient.builder()
+                .baseUrl("http://auth")
+                .defaultHeaders(headers -> headers.setAccept(AuthServiceWireFormat.SMILE.accept()));
+        MockRestServiceServer smileServer = MockRestServiceServer.bindTo(smileBuilder).build();
+        smileServer.expect(requestTo(USER_URL))
+                .andExpect(header(HttpHeaders.ACCEPT, "application/x-jackson-smile, application/json;q=0.5"))
+                .andRespond(withSuccess(USER_JSON, MediaType.APPLICATION_JSON));
+
+        UserInfo user = new AuthServiceClient(smileBuilder.build()).lookupUser("cn=jdoe");
+
+        assertEquals("John", user.getGivenName());
+        smileServer.verify();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = AuthServiceWireFormat.class, names = { "SMILE", "CBOR" })
+    void lookupUser_shouldDecodeBinaryFormat(AuthServiceWireFormat format) throws Exception {
+        assertTrue(format.isAvailable(), () -> format + " module not on the classpath");
+        ObjectMapper mapper = format == AuthServiceWireFormat.SMILE
+                ? Jackson2ObjectMapperBuilder.smile().build()
+                : Jackson2ObjectMapperBuilder.cbor().build();
+        byte[] body = mapper.writeValueAsBytes(
+                new UserInfoResponse("cn=jdoe", "cn=ca", "John", "Doe", List.of("ACME_READ_ONLY"), null, null));
+        RestClient.Builder binaryBuilder = RestClient.builder()
+                .baseUrl("http://auth")
+                .defaultHeaders(headers -> headers.setAccept(format.accept()));
+        MockRestServiceServer binaryServer = MockRestServiceServer.bindTo(binaryBuilder).build();
+        binaryServer.expect(requestTo(USER_URL))
+                .andExpect(header(HttpHeaders.ACCEPT, format.mediaType() + ", application/json;q=0.5"))
+                .andRespond(withSuccess(body, format.mediaType()).headers(cacheHeaders("\"v1\"")));
+
+        UserInfo user = new AuthServiceClient(binaryBuilder.build()).lookupUser("cn=jdoe");
+
+        assertEquals("cn=jdoe", user.getSubjectDn());
+        assertEquals("John", user.getGivenName());
+        assertEquals(List.of("ACME_READ_ONLY"), user.getRoles());
+        assertEquals("\"v1\"", user.getEtag());
+        binaryServer.verify();
+    }
+
+    @Test
+    void lookupUser_shouldTakeHedgedAnswer_andCancelSlowCall_whenReplicaIsSlow() throws InterruptedException {
+        RestClient.Builder hedgedBuilder = RestClient.builder();
+        MockRestServiceServer replicas = MockRestServiceServer.bindTo(hedgedBuilder).ignoreExpectOrder(true).build();
+        replicas.expect(ExpectedCount.manyTimes(), requestTo("http://a/api/auth/users/cn%3Djdoe"))
+                .andRespond(request -> {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return withSuccess(USER_JSON.replace("John", "Slow"), MediaType.APPLICATION_JSON)
+                            .createResponse(request);
+                });
+        replicas.expect(ExpectedCount.manyTimes(), requestTo("http://b/api/auth/users/cn%3Djdoe"))
+                .andRespond(withSuccess(USER_JSON, MediaType.APPLICATION_JSON));
+        AuthServiceEndpoints endpoints = new AuthServiceEndpoints(List.of("http://a", "http://b"),
+                Duration.ofMillis(10));
+        for (int i = 0; i < 20; i++) {
+            endpoints.recordLatency(Duration.ofMillis(1).toNanos());
+        }
+
+        try (AuthServiceClient hedged = new AuthServiceClient(hedgedBuilder.build(), endpoints, true, null, 0)) {
+            long start = System.nanoTime();
+            UserInfo user = hedged.lookupUser("cn=jdoe");
+
+            assertEquals("John", user.getGivenName());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+
+            // The slow call is interrupted instead of holding its slot for the full 2s
+            Endpoint slow = endpoints.endpoints().get(0);
+            long deadline = start + Duration.ofSeconds(1).toNanos();
+            while (slow.outstanding() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, slow.outstanding());
+        }
+    }
+}
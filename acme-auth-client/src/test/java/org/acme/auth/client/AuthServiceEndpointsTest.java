@@ -0,0 +1,77 @@
+package org.acme.auth.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.acme.auth.client.AuthServiceEndpoints.Endpoint;
+
+class AuthServiceEndpointsTest {
+
+    private final AuthServiceEndpoints endpoints = new AuthServiceEndpoints(List.of("http://a", "http://b"),
+            Duration.ofMillis(10));
+
+    @Test
+    void select_shouldPickReplicaWithFewestOutstandingRequests() {
+        Endpoint a = endpoints.endpoints().get(0);
+        Endpoint b = endpoints.endpoints().get(1);
+        a.start();
+        a.start();
+        b.start();
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(b, endpoints.select(null));
+        }
+    }
+
+    @Test
+    void select_shouldSkipExcludedReplica() {
+        Endpoint a = endpoints.endpoints().get(0);
+        Endpoint b = endpoints.endpoints().get(1);
+        b.start();
+
+        assertSame(b, endpoints.select(a));
+    }
+
+    @Test
+    void hedgeDelay_shouldBeNull_untilEnoughSamples() {
+        for (int i = 0; i < 19; i++) {
+            endpoints.recordLatency(Duration.ofMillis(50).toNanos());
+        }
+        assertNull(endpoints.hedgeDelay());
+
+        endpoints.recordLatency(Duration.ofMillis(50).toNanos());
+        assertEquals(Duration.ofMillis(50), endpoints.hedgeDelay());
+    }
+
+    @Test
+    void hedgeDelay_shouldBeP95_butAtLeastMinDelay() {
+        for (int i = 1; i <= 20; i++) {
+            endpoints.recordLatency(Duration.ofMillis(i * 100).toNanos());
+        }
+        assertEquals(Duration.ofMillis(1900), endpoints.hedgeDelay());
+
+        AuthServiceEndpoints fast = new AuthServiceEndpoints(List.of("http://a", "http://b"), Duration.ofMillis(10));
+        for (int i = 0; i < 20; i++) {
+            fast.recordLatency(Duration.ofMillis(1).toNanos());
+        }
+        assertEquals(Duration.ofMillis(10), fast.hedgeDelay());
+    }
+
+    @Test
+    void finish_withoutLatency_shouldReleaseSlotButNotFeedHedgeDelay() {
+        Endpoint a = endpoints.endpoints().get(0);
+        for (int i = 0; i < 20; i++) {
+            a.start();
+            a.finish();
+        }
+
+        assertEquals(0, a.outstanding());
+        assertNull(endpoints.hedgeDelay());
+    }
+}
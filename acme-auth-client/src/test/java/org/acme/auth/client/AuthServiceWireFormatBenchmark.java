@@ -0,0 +1,78 @@
+package org.acme.auth.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.acme.auth.client.AuthServiceClient.UserInfoResponse;
+
+/**
+ * Encode (auth service) and decode (auth client) cost of one user lookup body
+ * per {@link AuthServiceWireFormat}, at typical role list sizes. Not picked up
+ * by the regular build (no {@code Test} suffix); run with:
+ *
+ * <pre>
+ * mvn -pl acme-auth-client test -Dtest=AuthServiceWireFormatBenchmark
+ * </pre>
+ */
+class AuthServiceWireFormatBenchmark {
+
+    private static final int[] ROLE_COUNTS = { 3, 20, 100 };
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int ITERATIONS = 50_000;
+
+    private static ObjectMapper objectMapper(AuthServiceWireFormat format) {
+        return switch (format) {
+            case JSON -> Jackson2ObjectMapperBuilder.json().build();
+            case SMILE -> Jackson2ObjectMapperBuilder.smile().build();
+            case CBOR -> Jackson2ObjectMapperBuilder.cbor().build();
+        };
+    }
+
+    private static UserInfoResponse user(int roleCount) {
+        List<String> roles = IntStream.range(0, roleCount)
+                .mapToObj(i -> "ACME_APPLICATION_" + i + "_READ_WRITE")
+                .toList();
+        return new UserInfoResponse("CN=John Doe,OU=Engineering,OU=Users,DC=corp,DC=acme,DC=org",
+                "CN=Acme Issuing CA 2,OU=PKI,DC=corp,DC=acme,DC=org", "John", "Doe", roles, null, null);
+    }
+
+    @ParameterizedTest
+    @EnumSource(AuthServiceWireFormat.class)
+    void encodeAndDecode(AuthServiceWireFormat format) throws Exception {
+        ObjectMapper mapper = objectMapper(format);
+
+        for (int roleCount : ROLE_COUNTS) {
+            UserInfoResponse user = user(roleCount);
+            byte[] body = mapper.writeValueAsBytes(user);
+            assertEquals(user, mapper.readValue(body, UserInfoResponse.class));
+
+            long encodeNanos = 0;
+            long decodeNanos = 0;
+            long checksum = 0;
+            for (int i = 0; i < WARMUP_ITERATIONS + ITERATIONS; i++) {
+                long start = System.nanoTime();
+                byte[] encoded = mapper.writeValueAsBytes(user);
+                long encodedAt = System.nanoTime();
+                UserInfoResponse decoded = mapper.readValue(encoded, UserInfoResponse.class);
+                long end = System.nanoTime();
+                if (i >= WARMUP_ITERATIONS) {
+                    encodeNanos += encodedAt - start;
+                    decodeNanos += end - encodedAt;
+                }
+                // Keeps the JIT from discarding the work
+                checksum += encoded.length + decoded.roles().size();
+            }
+
+            System.out.printf("%-5s roles=%3d bytes=%5d encode=%6d ns decode=%6d ns (checksum %d)%n", format,
+                    roleCount, body.length, encodeNanos / ITERATIONS, decodeNanos / ITERATIONS, checksum);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.acme.auth.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+class UserChangeSubscriberTest {
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final UserChangeListener listener = new UserChangeListener() {
+        @Override
+        public void userChanged(String subjectDn) {
+            received.add("changed:" + subjectDn);
+        }
+
+        @Override
+        public void resync() {
+            received.add("resync");
+        }
+    };
+
+    private void read(String stream) throws IOException {
+        UserChangeSubscriber.read(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)), listener);
+    }
+
+    @Test
+    void read_shouldDispatchUserChangedEvents() throws IOException {
+        read("""
+                event:user-changed
+                data:cn=jdoe,ou=engineering,ou=users,dc=corp,dc=acme,dc=org
+
+                event: user-changed
+                data: cn=asmith,ou=hr,ou=users,dc=corp,dc=acme,dc=org
+
+                """);
+
+        assertEquals(List.of(
+                "changed:cn=jdoe,ou=engineering,ou=users,dc=corp,dc=acme,dc=org",
+                "changed:cn=asmith,ou=hr,ou=users,dc=corp,dc=acme,dc=org"), received);
+    }
+
+    @Test
+    void read_shouldDispatchResync_andIgnoreHeartbeatsAndUnknownEvents() throws IOException {
+        read("""
+                :heartbeat
+
+                event:something-else
+                data:x
+
+                event:resync
+                data:
+
+                """);
+
+        assertEquals(List.of("resync"), received);
+    }
+
+    @Test
+    void read_shouldNotDispatchIncompleteEvent_whenStreamEnds() throws IOException {
+        read("event:user-changed\ndata:cn=jdoe");
+
+        assertEquals(List.of(), received);
+    }
+
+    @Test
+    void start_shouldReconnectToAnotherReplica_whenStreamFails() throws InterruptedException {
+        RestClient.Builder builder = RestClient.builder();
+        MockRestServiceServer replicas = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        replicas.expect(ExpectedCount.manyTimes(), requestTo("http://a" + UserChangeSubscriber.CHANGES_PATH))
+                .andRespond(withServiceUnavailable());
+        replicas.expect(ExpectedCount.manyTimes(), requestTo("http://b" + UserChangeSubscriber.CHANGES_PATH))
+                .andRespond(withSuccess("event:user-changed\ndata:cn=jdoe\n\n", MediaType.TEXT_EVENT_STREAM));
+        AuthServiceEndpoints endpoints = new AuthServiceEndpoints(List.of("http://a", "http://b"), Duration.ZERO);
+
+        try (UserChangeSubscriber subscriber = new UserChangeSubscriber(builder.build(), endpoints, true,
+                Duration.ofMillis(10))) {
+            subscriber.start(listener);
+
+            assertTrue(subscriber.awaitSynced(Duration.ofSeconds(5)));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!received.contains("changed:cn=jdoe") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertEquals(List.of("resync", "changed:cn=jdoe"), received.subList(0, 2));
+    }
+}
@@ -0,0 +1,79 @@
+package org.acme.auth.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class UserLookupBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private Map<String, UserInfo> lookupKnownUsers(List<String> dns) {
+        batches.add(dns);
+        return dns.stream()
+                .filter(dn -> !dn.startsWith("cn=unknown"))
+                .collect(Collectors.toMap(dn -> dn, dn -> new UserInfo(dn, null, null, null, List.of())));
+    }
+
+    @Test
+    void lookup_shouldResolveLookupsWithinWindow_withOneBatchCall() {
+        try (UserLookupBatcher batcher = new UserLookupBatcher(this::lookupKnownUsers, Duration.ofMillis(50), 64)) {
+            CompletableFuture<UserInfo> first = batcher.lookup("cn=a");
+            CompletableFuture<UserInfo> second = batcher.lookup("cn=b");
+            CompletableFuture<UserInfo> duplicate = batcher.lookup("cn=a");
+
+            assertEquals("cn=a", first.join().getSubjectDn());
+            assertEquals("cn=b", second.join().getSubjectDn());
+            assertSame(first, duplicate);
+        }
+
+        assertEquals(List.of(List.of("cn=a", "cn=b")), batches);
+    }
+
+    @Test
+    void lookup_shouldSendImmediately_whenBatchIsFull() {
+        try (UserLookupBatcher batcher = new UserLookupBatcher(this::lookupKnownUsers, Duration.ofHours(1), 2)) {
+            CompletableFuture<UserInfo> first = batcher.lookup("cn=a");
+            CompletableFuture<UserInfo> second = batcher.lookup("cn=b");
+
+            assertEquals("cn=a", first.join().getSubjectDn());
+            assertEquals("cn=b", second.join().getSubjectDn());
+        }
+
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void lookup_shouldFailWithUserNotFound_forDnsMissingFromResponse() {
+        try (UserLookupBatcher batcher = new UserLookupBatcher(this::lookupKnownUsers, Duration.ofMillis(1), 64)) {
+            CompletionException thrown = assertThrows(CompletionException.class,
+                    () -> batcher.lookup("cn=unknown").join());
+
+            assertTrue(thrown.getCause() instanceof UserNotFoundException);
+        }
+    }
+
+    @Test
+    void lookup_shouldFailAllLookups_whenBatchCallFails() {
+        IllegalStateException failure = new IllegalStateException("down");
+        try (UserLookupBatcher batcher = new UserLookupBatcher(dns -> {
+            throw failure;
+        }, Duration.ofMillis(1), 64)) {
+            CompletionException thrown = assertThrows(CompletionException.class,
+                    () -> batcher.lookup("cn=a").join());
+
+            assertSame(failure, thrown.getCause());
+        }
+    }
+}
@@ -3,11 +3,15 @@ package org.acme.auth.service.app;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication(scanBasePackages = "org.acme.auth.service")
 @EnableJpaRepositories(basePackages = "org.acme.auth.service.repository")
 @EntityScan(basePackages = "org.acme.auth.service.entity")
+// Cache advice runs before the transaction so cache hits don't open one
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 public class AuthServiceApplication {
 
     public static void main(String[] args) {
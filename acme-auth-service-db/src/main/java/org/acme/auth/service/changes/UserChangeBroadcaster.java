@@ -0,0 +1,102 @@
+package org.acme.auth.service.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans user change events out to the clients subscribed to
+ * {@code GET /api/auth/changes} (server-sent events).
+ * <p>
+ * Events:
+ * <ul>
+ * <li>{@value #USER_CHANGED_EVENT}: data is the subject DN of a user whose
+ * data or roles changed</li>
+ * <li>{@value #RESYNC_EVENT}: changes may have been missed; clients should
+ * drop everything they cached</li>
+ * </ul>
+ * A comment line is sent to every subscriber each
+ * {@code acme.auth.changes.heartbeat-interval} so dead connections are
+ * detected on both sides.
+ */
+@Slf4j
+@Component
+public class UserChangeBroadcaster implements DisposableBean {
+
+    public static final String USER_CHANGED_EVENT = "user-changed";
+    public static final String RESYNC_EVENT = "resync";
+
+    private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+    private final ScheduledExecutorService heartbeat;
+
+    public UserChangeBroadcaster(
+            @Value("${acme.auth.changes.heartbeat-interval:30s}") Duration heartbeatInterval) {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-change-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a new subscriber. The emitter never times out; it is removed
+     * when the client disconnects or a send fails.
+     *
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        log.debug("Change stream subscriber added ({} active)", emitters.size());
+        return emitter;
+    }
+
+    public void userChanged(String subjectDn) {
+        broadcast(() -> SseEmitter.event().name(USER_CHANGED_EVENT).data(subjectDn));
+    }
+
+    public void resync() {
+        broadcast(() -> SseEmitter.event().name(RESYNC_EVENT).data(""));
+    }
+
+    private void sendHeartbeat() {
+        broadcast(() -> SseEmitter.event().comment("heartbeat"));
+    }
+
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        // Event builders are single-use, hence one per subscriber
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping change stream subscriber: {}", e.getMessage());
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+}
@@ -0,0 +1,169 @@
+package org.acme.auth.service.changes;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.service.service.UserService;
+
+/**
+ * Listens on the PostgreSQL {@value #CHANNEL} channel (fed by the triggers in
+ * the V4 migration) and turns each notification into a
+ * {@link UserChangeBroadcaster#userChanged(String) user-changed} event. It is
+ * also the only source of {@value UserService#USERS_CACHE} evictions: the
+ * triggers fire for every write, including those made outside this service.
+ * With {@code acme.auth.changes.enabled=false} entries only expire on the
+ * cache TTL.
+ * <p>
+ * {@code LISTEN} runs on a dedicated connection opened outside the pool, so the
+ * pool never hands out (or recycles) the listening session. Polling for
+ * notifications only reads what the server already sent, so a half-open TCP
+ * connection would look like "no changes" forever; the connection is therefore
+ * validated every {@code acme.auth.changes.check-interval}. If it is lost,
+ * notifications sent in the meantime are gone, so after reconnecting (and
+ * listening again) the local cache is cleared and subscribers are told to
+ * {@link UserChangeBroadcaster#resync() resync}.
+ */
+@Slf4j
+@Component
+public class UserChangeNotificationListener implements DisposableBean {
+
+    public static final String CHANNEL = "user_changes";
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheManager cacheManager;
+    private final UserChangeBroadcaster broadcaster;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+    private final Duration checkInterval;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public UserChangeNotificationListener(
+            DataSourceProperties dataSourceProperties,
+            CacheManager cacheManager,
+            UserChangeBroadcaster broadcaster,
+            @Value("${acme.auth.changes.enabled:true}") boolean enabled,
+            @Value("${acme.auth.changes.reconnect-delay:5s}") Duration reconnectDelay,
+            @Value("${acme.auth.changes.check-interval:30s}") Duration checkInterval) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.broadcaster = broadcaster;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+        this.checkInterval = checkInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "user-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(POLL_TIMEOUT_MILLIS * 2L);
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for user changes on channel {}", CHANNEL);
+                if (reconnecting) {
+                    resync();
+                }
+                long lastCheck = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            userChanged(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - lastCheck >= checkInterval.toNanos()) {
+                        // A round trip with a network timeout, unlike polling
+                        if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                            throw new SQLException("Connection failed validation");
+                        }
+                        lastCheck = System.nanoTime();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("User change listener lost its connection, retrying in {}: {}", reconnectDelay,
+                        e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a physical connection with the application's datasource settings,
+     * bypassing the pool.
+     */
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void userChanged(String subjectDn) {
+        log.debug("User changed: {}", subjectDn);
+        Cache cache = cacheManager.getCache(UserService.USERS_CACHE);
+        if (cache != null) {
+            // Same key as DbUserServiceImpl#findByDn
+            cache.evict(subjectDn.toLowerCase(Locale.ROOT));
+        }
+        broadcaster.userChanged(subjectDn);
+    }
+
+    private void resync() {
+        Cache cache = cacheManager.getCache(UserService.USERS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        broadcaster.resync();
+    }
+}
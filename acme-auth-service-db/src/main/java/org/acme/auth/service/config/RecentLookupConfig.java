@@ -0,0 +1,25 @@
+package org.acme.auth.service.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import org.acme.auth.utils.RecentLookupIndex;
+
+/**
+ * Index behind {@code GET /api/auth/users/recent}, bounded by
+ * {@code acme.auth.recent-lookups.max-size} (default 10000) and dropping DNs
+ * not looked up for {@code acme.auth.recent-lookups.expire-after} (default 1h).
+ */
+@Configuration
+public class RecentLookupConfig {
+
+    @Bean
+    public RecentLookupIndex recentLookupIndex(
+            @Value("${acme.auth.recent-lookups.max-size:10000}") long maxSize,
+            @Value("${acme.auth.recent-lookups.expire-after:1h}") Duration expireAfter) {
+        return new RecentLookupIndex(maxSize, expireAfter);
+    }
+}
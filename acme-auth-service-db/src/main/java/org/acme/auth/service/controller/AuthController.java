@@ -1,24 +1,69 @@
 package org.acme.auth.service.controller;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.acme.auth.service.changes.UserChangeBroadcaster;
+import org.acme.auth.service.dto.BatchUserInfoResponse;
 import org.acme.auth.service.dto.UserInfoResponse;
 import org.acme.auth.service.service.UserService;
+import org.acme.auth.utils.RecentLookupIndex;
+import org.acme.auth.utils.UserInfoETagUtil;
 
+/**
+ * User lookups for the auth clients.
+ * <p>
+ * Bodies are negotiated from the {@code Accept} header: JSON by default, or
+ * Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}) when the Jackson data format modules are on the
+ * classpath (Maven profile {@code jackson-binary}), for clients configured with
+ * {@code auth.service.wire-format}. Other callers keep getting JSON.
+ */
 @Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
+    /**
+     * Upper bound on DNs per batch lookup request.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Upper bound on DNs per recently active users request.
+     */
+    public static final int MAX_RECENT_USERS = 10_000;
+
     private final UserService userService;
+    private final RecentLookupIndex recentLookupIndex;
+    private final UserChangeBroadcaster userChangeBroadcaster;
+
+    /**
+     * How long clients may use a looked-up user before revalidating it
+     * ({@code Cache-Control: max-age}).
+     */
+    @Value("${acme.auth.users.max-age:5m}")
+    private Duration userMaxAge;
 
     @GetMapping("/users/{dn}")
     public ResponseEntity<UserInfoResponse> getUserByDn(@PathVariable("dn") String dn) {
@@ -27,7 +72,70 @@ public class AuthController {
         UserInfoResponse user = userService.findByDn(dn);
         log.debug("Found user: subjectDn={}, issuerDn={}, givenName={}, surname={}, roles={}",
                 user.getSubjectDn(), user.getIssuerDn(), user.getGivenName(), user.getSurname(), user.getRoles());
+        recentLookupIndex.record(dn);
+
+        // A request whose If-None-Match matches the ETag gets a body-less 304
+        // (with the same ETag and Cache-Control) from Spring MVC. The ETag covers
+        // the user rather than the bytes, so it holds for every body format.
+        return ResponseEntity.ok()
+                .eTag(etag(user))
+                .cacheControl(CacheControl.maxAge(userMaxAge).cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(user);
+    }
+
+    /**
+     * Lists the DNs looked up most actively on this instance (see
+     * {@link RecentLookupIndex}), used by clients to warm up their caches.
+     *
+     * @param limit maximum number of DNs (at most {@value #MAX_RECENT_USERS})
+     * @return the DNs, most active first
+     */
+    @GetMapping("/users/recent")
+    public ResponseEntity<List<String>> getRecentUsers(
+            @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+        List<String> dns = recentLookupIndex.hottest(Math.clamp(limit, 0, MAX_RECENT_USERS));
+        log.debug("Returning {} recently active user DNs", dns.size());
+        return ResponseEntity.ok(dns);
+    }
+
+    /**
+     * Looks up several users in one call (used by micro-batching clients).
+     *
+     * @param dns the Distinguished Names to look up
+     * @return users keyed by the requested DN, each with the ETag and max-age a
+     *         single lookup would send; unknown DNs are omitted
+     */
+    @PostMapping("/users/batch")
+    public ResponseEntity<Map<String, BatchUserInfoResponse>> getUsersByDn(@RequestBody List<String> dns) {
+        if (dns.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "Too many DNs in batch lookup: " + dns.size() + " (max " + MAX_BATCH_SIZE + ")");
+        }
+        log.debug("Looking up {} users by DN", dns.size());
+
+        Map<String, UserInfoResponse> users = userService.findAllByDn(dns);
+        log.debug("Found {} of {} users", users.size(), dns.size());
+
+        long maxAge = userMaxAge.toSeconds();
+        Map<String, BatchUserInfoResponse> response = new LinkedHashMap<>();
+        users.forEach((dn, user) -> response.put(dn,
+                new BatchUserInfoResponse(user, "\"" + etag(user) + "\"", maxAge)));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Server-sent event stream of user changes (see {@link UserChangeBroadcaster}),
+     * used by clients to invalidate their user caches.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() {
+        log.debug("Change stream subscription");
+        return userChangeBroadcaster.subscribe();
+    }
 
-        return ResponseEntity.ok(user);
+    private static String etag(UserInfoResponse user) {
+        return UserInfoETagUtil.etag(user.getSubjectDn(), user.getIssuerDn(), user.getGivenName(), user.getSurname(),
+                user.getRoles());
     }
 }
@@ -16,6 +16,9 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -36,6 +39,14 @@ public class User {
     @Column(name = "subject_dn", nullable = false, unique = true, length = 500)
     private String subjectDn;
 
+    /**
+     * Lowercase subject DN, generated by the database (see V3 migration) and
+     * indexed for case-insensitive lookups.
+     */
+    @Generated(event = { EventType.INSERT, EventType.UPDATE })
+    @Column(name = "subject_dn_canonical", insertable = false, updatable = false, length = 500)
+    private String subjectDnCanonical;
+
     @Column(name = "issuer_dn", nullable = false, length = 500)
     private String issuerDn;
 
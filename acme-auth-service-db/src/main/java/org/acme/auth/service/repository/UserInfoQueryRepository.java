@@ -0,0 +1,103 @@
+package org.acme.auth.service.repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.acme.auth.service.dto.UserInfoResponse;
+
+/**
+ * Read-only user lookups projected straight into {@link UserInfoResponse}.
+ * <p>
+ * Unlike {@link UserRepository}, nothing is hydrated into the persistence
+ * context: one SQL statement returns the user columns with the roles
+ * aggregated into an array ({@code array_agg}), and each row is mapped to the
+ * response directly. Callers should run these in a read-only transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserInfoQueryRepository {
+
+    private static final String SELECT_USER_INFO = """
+            SELECT u.subject_dn, u.subject_dn_canonical, u.issuer_dn, u.given_name, u.surname,
+                   COALESCE(array_agg(r.role_name ORDER BY r.role_name)
+                            FILTER (WHERE r.role_name IS NOT NULL), '{}'::varchar[]) AS roles
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            """;
+
+    private static final String FIND_BY_DN = SELECT_USER_INFO + """
+            WHERE u.subject_dn_canonical = LOWER(:dn)
+            GROUP BY u.id
+            ORDER BY u.id
+            LIMIT 1
+            """;
+
+    private static final String FIND_ALL_BY_DN = SELECT_USER_INFO + """
+            WHERE u.subject_dn_canonical IN (:dns)
+            GROUP BY u.id
+            ORDER BY u.id DESC
+            """;
+
+    private final JdbcClient jdbcClient;
+
+    /**
+     * Finds a user by DN (case-insensitive, via the indexed canonical DN column).
+     * Should the table hold several DNs differing only by case, the oldest row
+     * wins.
+     *
+     * @param dn the Distinguished Name
+     * @return the user with roles, or empty if not found
+     */
+    public Optional<UserInfoResponse> findByDnIgnoreCase(String dn) {
+        return jdbcClient.sql(FIND_BY_DN)
+                .param("dn", dn)
+                .query((rs, rowNum) -> toResponse(rs))
+                .optional();
+    }
+
+    /**
+     * Finds users by DN in a single statement. {@code dns} must already be
+     * lowercase.
+     *
+     * @param dns the lowercase Distinguished Names
+     * @return the users found, keyed by canonical (lowercase) DN; for DNs
+     *         differing only by case, the oldest row wins
+     */
+    public Map<String, UserInfoResponse> findAllByDnInIgnoreCase(Collection<String> dns) {
+        Map<String, UserInfoResponse> users = new HashMap<>();
+        jdbcClient.sql(FIND_ALL_BY_DN)
+                .param("dns", dns)
+                .query((RowCallbackHandler) rs -> users.put(rs.getString("subject_dn_canonical"), toResponse(rs)));
+        return users;
+    }
+
+    private static UserInfoResponse toResponse(ResultSet rs) throws SQLException {
+        return UserInfoResponse.builder()
+                .subjectDn(rs.getString("subject_dn"))
+                .issuerDn(rs.getString("issuer_dn"))
+                .givenName(rs.getString("given_name"))
+                .surname(rs.getString("surname"))
+                .roles(toList(rs.getArray("roles")))
+                .build();
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        try {
+            return List.of((String[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+}
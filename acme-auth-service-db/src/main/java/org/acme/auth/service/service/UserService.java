@@ -1,5 +1,8 @@
 package org.acme.auth.service.service;
 
+import java.util.List;
+import java.util.Map;
+
 import org.acme.auth.service.dto.UserInfoResponse;
 import org.acme.auth.service.exception.UserNotFoundException;
 
@@ -8,13 +11,24 @@ import org.acme.auth.service.exception.UserNotFoundException;
  */
 public interface UserService {
 
+    /** Server-side cache of {@link #findByDn(String)} results. */
+    String USERS_CACHE = "users";
+
     /**
      * Finds a user by DN (case-insensitive) and returns user information with
-     * roles.
+     * roles. Results are cached in {@value #USERS_CACHE}, keyed by lowercase DN.
      *
      * @param dn the Distinguished Name to search for
      * @return UserInfoResponse if found
      * @throws UserNotFoundException if user is not found
      */
     UserInfoResponse findByDn(String dn);
+
+    /**
+     * Finds several users by DN (case-insensitive) in one database round trip.
+     *
+     * @param dns the Distinguished Names to search for
+     * @return users keyed by the requested DN; DNs without a user are omitted
+     */
+    Map<String, UserInfoResponse> findAllByDn(List<String> dns);
 }
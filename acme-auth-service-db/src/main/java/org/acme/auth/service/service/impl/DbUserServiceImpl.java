@@ -1,39 +1,54 @@
 package org.acme.auth.service.service.impl;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.acme.auth.service.dto.UserInfoResponse;
-import org.acme.auth.service.entity.User;
-import org.acme.auth.service.entity.UserRole;
 import org.acme.auth.service.exception.UserNotFoundException;
-import org.acme.auth.service.repository.UserRepository;
+import org.acme.auth.service.repository.UserInfoQueryRepository;
 import org.acme.auth.service.service.UserService;
 
 /**
  * Implementation of {@link UserService} for querying user information from
  * database.
+ * <p>
+ * Lookups go through {@link UserInfoQueryRepository}, which maps rows straight
+ * to {@link UserInfoResponse} without loading entities, in read-only
+ * transactions (no dirty checking or flush).
+ * <p>
+ * Single lookups are cached in {@value UserService#USERS_CACHE};
+ * {@link org.acme.auth.service.changes.UserChangeNotificationListener} evicts
+ * entries when the database reports a change to a user or their roles.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DbUserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
+    private final UserInfoQueryRepository userInfoQueryRepository;
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = USERS_CACHE, key = "#p0.toLowerCase(T(java.util.Locale).ROOT)", condition = "#p0 != null",
+            sync = true)
     public UserInfoResponse findByDn(String dn) {
         if (!StringUtils.hasText(dn)) {
             throw new UserNotFoundException(dn);
         }
 
-        User user = userRepository.findByDnIgnoreCase(dn)
+        UserInfoResponse user = userInfoQueryRepository.findByDnIgnoreCase(dn)
                 .orElseThrow(() -> {
                     log.debug("User not found in database: {}", dn);
                     return new UserNotFoundException(dn);
@@ -41,17 +56,34 @@ public class DbUserServiceImpl implements UserService {
 
         log.debug("Found user in database: {}", dn);
 
-        // Extract roles from UserRole entities
-        List<String> roles = user.getRoles().stream()
-                .map(UserRole::getRoleName)
-                .collect(Collectors.toList());
-
-        return UserInfoResponse.builder()
-                .subjectDn(user.getSubjectDn())
-                .issuerDn(user.getIssuerDn())
-                .givenName(user.getGivenName())
-                .surname(user.getSurname())
-                .roles(roles)
-                .build();
+        return user;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, UserInfoResponse> findAllByDn(List<String> dns) {
+        Set<String> lowercaseDns = dns.stream()
+                .filter(StringUtils::hasText)
+                .map(DbUserServiceImpl::lowercase)
+                .collect(Collectors.toSet());
+        if (lowercaseDns.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, UserInfoResponse> usersByDn = userInfoQueryRepository.findAllByDnInIgnoreCase(lowercaseDns);
+        log.debug("Found {} of {} users in database", usersByDn.size(), lowercaseDns.size());
+
+        Map<String, UserInfoResponse> result = new LinkedHashMap<>();
+        for (String dn : dns) {
+            UserInfoResponse user = StringUtils.hasText(dn) ? usersByDn.get(lowercase(dn)) : null;
+            if (user != null) {
+                result.put(dn, user);
+            }
+        }
+        return result;
+    }
+
+    private static String lowercase(String dn) {
+        return dn.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,10 @@
+-- Canonical (lowercase) subject DN for case-insensitive lookups.
+-- LOWER(subject_dn) = LOWER(:dn) cannot use idx_users_subject_dn, so every lookup
+-- scanned the whole table. The stored generated column is backfilled for existing
+-- rows when it is added and kept in sync by PostgreSQL on insert/update.
+ALTER TABLE users
+    ADD COLUMN subject_dn_canonical VARCHAR(500) GENERATED ALWAYS AS (LOWER(subject_dn)) STORED;
+
+-- Plain index: only makes the lookup indexable. Existing rows may hold DNs that
+-- differ only by case, so no case-insensitive uniqueness is enforced here.
+CREATE INDEX idx_users_subject_dn_canonical ON users (subject_dn_canonical);
@@ -0,0 +1,42 @@
+-- Publish the subject DN of every changed user on the user_changes channel
+-- (LISTEN/NOTIFY). Notifications are delivered on commit, and duplicates within
+-- one transaction are collapsed by PostgreSQL.
+CREATE FUNCTION notify_user_change() RETURNS trigger AS
+$$
+DECLARE
+    changed_dn VARCHAR(500);
+BEGIN
+    IF TG_TABLE_NAME = 'users' THEN
+        IF TG_OP = 'DELETE' THEN
+            changed_dn := OLD.subject_dn;
+        ELSE
+            changed_dn := NEW.subject_dn;
+        END IF;
+        IF TG_OP = 'UPDATE' AND OLD.subject_dn <> NEW.subject_dn THEN
+            PERFORM pg_notify('user_changes', OLD.subject_dn);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        -- Null when the role row is removed by the cascade from a deleted user
+        SELECT subject_dn INTO changed_dn FROM users WHERE id = OLD.user_id;
+    ELSE
+        SELECT subject_dn INTO changed_dn FROM users WHERE id = NEW.user_id;
+    END IF;
+
+    IF changed_dn IS NOT NULL THEN
+        PERFORM pg_notify('user_changes', changed_dn);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_notify_change
+    AFTER INSERT OR UPDATE OR DELETE
+    ON users
+    FOR EACH ROW
+EXECUTE FUNCTION notify_user_change();
+
+CREATE TRIGGER user_roles_notify_change
+    AFTER INSERT OR UPDATE OR DELETE
+    ON user_roles
+    FOR EACH ROW
+EXECUTE FUNCTION notify_user_change();
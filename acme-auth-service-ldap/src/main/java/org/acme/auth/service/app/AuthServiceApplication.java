@@ -2,8 +2,10 @@ package org.acme.auth.service.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication(scanBasePackages = "org.acme.auth.service")
+@EnableCaching
 public class AuthServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package org.acme.auth.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One user in a batch lookup response: the user's fields, plus the ETag and
+ * max-age a single lookup sends as headers, so clients can revalidate
+ * batch-loaded users with {@code If-None-Match} as well.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BatchUserInfoResponse {
+
+    @JsonUnwrapped
+    private final UserInfoResponse user;
+
+    /**
+     * Entity tag (quoted), as in the single lookup's {@code ETag} header.
+     */
+    private final String etag;
+
+    /**
+     * {@code Cache-Control: max-age}, in seconds.
+     */
+    private final long maxAge;
+}
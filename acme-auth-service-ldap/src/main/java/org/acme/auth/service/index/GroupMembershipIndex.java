@@ -0,0 +1,275 @@
+package org.acme.auth.service.index;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.ldap.core.ContextMapper;
+import org.springframework.ldap.core.DirContextAdapter;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.query.LdapQuery;
+import org.springframework.ldap.query.LdapQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.utils.DnUtil;
+import org.acme.auth.utils.LdapDnUtil;
+
+/**
+ * Optional in-memory index of group membership: normalized member DN to the
+ * CNs of the groups listing it.
+ * <p>
+ * The memberOf overlay is not enabled, so without the index every user lookup
+ * costs a {@code (member=<dn>)} subtree search. When
+ * {@code acme.ldap.group-index.enabled=true}, the index is built once the
+ * application is ready and refreshed every
+ * {@code acme.ldap.group-index.refresh-interval}: groups whose
+ * {@code modifyTimestamp} is at or after the newest one seen are re-read, and
+ * a DN-only search of all groups drops deleted ones. Refreshes swap in a new
+ * immutable snapshot, so lookups never block; a failed refresh keeps the
+ * previous snapshot.
+ * <p>
+ * Metrics: {@value #SIZE_METRIC} (indexed member DNs), {@value #REFRESH_METRIC}
+ * (timer tagged {@code type=full|incremental} and
+ * {@code result=success|failure}) and {@value #STALENESS_METRIC} (seconds since
+ * the last successful refresh).
+ */
+@Slf4j
+@Component
+public class GroupMembershipIndex implements DisposableBean {
+
+    public static final String SIZE_METRIC = "acme.ldap.group.index.size";
+    public static final String REFRESH_METRIC = "acme.ldap.group.index.refresh";
+    public static final String STALENESS_METRIC = "acme.ldap.group.index.staleness";
+
+    private static final String GROUP_OBJECT_CLASS = "groupOfNames";
+    private static final String[] GROUP_ATTRIBUTES = { "member", "modifyTimestamp" };
+    /** RFC 4511 "no attributes": only the entry DNs are returned. */
+    private static final String[] NO_ATTRIBUTES = { "1.1" };
+
+    private final LdapTemplate ldapTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final String ldapBase;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastRefreshNanos;
+    private ScheduledExecutorService scheduler;
+
+    public GroupMembershipIndex(
+            LdapTemplate ldapTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${acme.ldap.group-index.enabled:false}") boolean enabled,
+            @Value("${acme.ldap.group-index.refresh-interval:30s}") Duration refreshInterval,
+            @Value("${spring.ldap.base}") String ldapBase) {
+        this.ldapTemplate = ldapTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.ldapBase = ldapBase;
+        if (enabled) {
+            Gauge.builder(SIZE_METRIC, this, index -> index.snapshot == null ? 0 : index.snapshot.size())
+                    .description("Member DNs in the LDAP group membership index")
+                    .register(meterRegistry);
+            Gauge.builder(STALENESS_METRIC, this, GroupMembershipIndex::stalenessSeconds)
+                    .description("Seconds since the last successful group membership index refresh")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the role names (group CNs) of a user from the index.
+     *
+     * @param userDn the user's full DN
+     * @return the group CNs, or null if the index is disabled or not built yet
+     */
+    public List<String> rolesFor(String userDn) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        return current.rolesByMember().getOrDefault(DnUtil.normalize(userDn), List.of());
+    }
+
+    /**
+     * @return true once the first build has completed (never for a disabled
+     *         index)
+     */
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ldap-group-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First run builds the index; until then lookups fall back to LDAP searches
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("LDAP group membership index enabled: refreshInterval={}", refreshInterval);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the index on the first call and refreshes it incrementally
+     * afterwards. Failures are logged and recorded; the previous snapshot stays
+     * in use.
+     */
+    void refresh() {
+        Snapshot current = snapshot;
+        // Without a modifyTimestamp watermark there is nothing to compare against
+        boolean full = current == null || current.highestModifyTimestamp() == null;
+        String type = full ? "full" : "incremental";
+        long start = System.nanoTime();
+        String result = "success";
+        try {
+            Snapshot refreshed = full ? build() : update(current);
+            if (refreshed != current) {
+                snapshot = refreshed;
+                log.debug("LDAP group membership index {} refresh: {} groups, {} members", type,
+                        refreshed.groupsByDn().size(), refreshed.size());
+            }
+            lastRefreshNanos = System.nanoTime();
+        } catch (Exception e) {
+            result = "failure";
+            log.warn("LDAP group membership index {} refresh failed", type, e);
+        } finally {
+            Timer.builder(REFRESH_METRIC)
+                    .tag("type", type)
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Snapshot build() {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (Group group : searchGroups(LdapQueryBuilder.query()
+                .attributes(GROUP_ATTRIBUTES)
+                .where("objectClass").is(GROUP_OBJECT_CLASS))) {
+            groups.put(group.normalizedDn(), group);
+        }
+        return Snapshot.of(groups, null);
+    }
+
+    private Snapshot update(Snapshot current) {
+        List<Group> changed = searchGroups(LdapQueryBuilder.query()
+                .attributes(GROUP_ATTRIBUTES)
+                .where("objectClass").is(GROUP_OBJECT_CLASS)
+                .and("modifyTimestamp").gte(current.highestModifyTimestamp()));
+        Set<String> existing = ldapTemplate.search(LdapQueryBuilder.query()
+                .attributes(NO_ATTRIBUTES)
+                .where("objectClass").is(GROUP_OBJECT_CLASS),
+                (ContextMapper<String>) ctx -> DnUtil.normalize(fullDn(ctx)))
+                .stream()
+                .collect(Collectors.toSet());
+
+        Map<String, Group> groups = new LinkedHashMap<>(current.groupsByDn());
+        boolean modified = groups.keySet().retainAll(existing);
+        for (Group group : changed) {
+            Group previous = groups.put(group.normalizedDn(), group);
+            modified |= !group.equals(previous);
+        }
+        return modified ? Snapshot.of(groups, current.highestModifyTimestamp()) : current;
+    }
+
+    private List<Group> searchGroups(LdapQuery query) {
+        return ldapTemplate.search(query, (ContextMapper<Group>) ctx -> {
+            DirContextAdapter adapter = (DirContextAdapter) ctx;
+            String groupDn = fullDn(ctx);
+            String[] members = adapter.getStringAttributes("member");
+            List<String> normalizedMembers = new ArrayList<>();
+            if (members != null) {
+                for (String member : members) {
+                    normalizedMembers.add(DnUtil.normalize(member));
+                }
+            }
+            return new Group(DnUtil.normalize(groupDn), LdapDnUtil.extractCn(groupDn), List.copyOf(normalizedMembers),
+                    adapter.getStringAttribute("modifyTimestamp"));
+        });
+    }
+
+    private String fullDn(Object ctx) {
+        return LdapDnUtil.ensureFullDn(((DirContextAdapter) ctx).getDn().toString(), ldapBase);
+    }
+
+    private double stalenessSeconds() {
+        return snapshot == null ? Double.NaN : (System.nanoTime() - lastRefreshNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * A group as read from the directory.
+     *
+     * @param normalizedDn      the normalized group DN
+     * @param cn                the role name (CN of the group DN)
+     * @param members           normalized member DNs
+     * @param modifyTimestamp   the group's modifyTimestamp (generalized time)
+     */
+    record Group(String normalizedDn, String cn, List<String> members, String modifyTimestamp) {
+    }
+
+    /**
+     * Immutable index state.
+     *
+     * @param groupsByDn              groups keyed by normalized DN
+     * @param rolesByMember           group CNs keyed by normalized member DN
+     * @param highestModifyTimestamp  newest modifyTimestamp seen (incremental
+     *                                refresh watermark)
+     */
+    record Snapshot(Map<String, Group> groupsByDn, Map<String, List<String>> rolesByMember,
+            String highestModifyTimestamp) {
+
+        static Snapshot of(Map<String, Group> groupsByDn, String previousWatermark) {
+            Map<String, List<String>> rolesByMember = new HashMap<>();
+            String watermark = previousWatermark;
+            for (Group group : groupsByDn.values()) {
+                if (group.cn() != null) {
+                    for (String member : group.members()) {
+                        rolesByMember.computeIfAbsent(member, key -> new ArrayList<>()).add(group.cn());
+                    }
+                }
+                // Generalized time strings in the same format compare chronologically
+                if (group.modifyTimestamp() != null
+                        && (watermark == null || group.modifyTimestamp().compareTo(watermark) > 0)) {
+                    watermark = group.modifyTimestamp();
+                }
+            }
+            rolesByMember.replaceAll((member, roles) -> List.copyOf(roles));
+            return new Snapshot(Map.copyOf(groupsByDn), Map.copyOf(rolesByMember), watermark);
+        }
+
+        int size() {
+            return rolesByMember.size();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.acme.auth.service.service;
 
+import java.util.List;
+import java.util.Map;
+
 import org.acme.auth.service.dto.UserInfoResponse;
 
 /**
@@ -7,12 +10,16 @@ import org.acme.auth.service.dto.UserInfoResponse;
  */
 public interface LdapUserService {
 
+    /** Server-side cache of {@link #findByDn(String)} results. */
+    String USERS_CACHE = "users";
+
     /**
      * Finds a user by DN (case-insensitive) and returns user information with
      * roles.
      * <p>
      * This method performs a case-insensitive search by trying multiple DN
-     * variations and using LDAP search filters as fallback.
+     * variations and using LDAP search filters as fallback. Results are cached in
+     * {@value #USERS_CACHE} (keyed by the requested DN) and expire by TTL.
      *
      * @param dn the Distinguished Name to search for
      * @return UserInfoResponse if found
@@ -20,4 +27,13 @@ public interface LdapUserService {
      *                                                               found
      */
     UserInfoResponse findByDn(String dn);
+
+    /**
+     * Finds several users by DN with one search for the users and one for their
+     * groups, matching by exact DN first and by CN (case-insensitive) otherwise.
+     *
+     * @param dns the Distinguished Names to search for
+     * @return users keyed by the requested DN; DNs without a user are omitted
+     */
+    Map<String, UserInfoResponse> findAllByDn(List<String> dns);
 }
@@ -1,13 +1,26 @@
 package org.acme.auth.service.service.impl;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.naming.NamingException;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.ldap.NameNotFoundException;
 import org.springframework.ldap.core.ContextMapper;
 import org.springframework.ldap.core.DirContextAdapter;
 import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.filter.AndFilter;
+import org.springframework.ldap.filter.EqualsFilter;
+import org.springframework.ldap.filter.OrFilter;
+import org.springframework.ldap.query.LdapQueryBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -16,8 +29,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.acme.auth.service.dto.UserInfoResponse;
 import org.acme.auth.service.exception.UserNotFoundException;
+import org.acme.auth.service.index.GroupMembershipIndex;
 import org.acme.auth.service.mapper.UserContextMapper;
 import org.acme.auth.service.service.LdapUserService;
+import org.acme.auth.utils.DnUtil;
 import org.acme.auth.utils.LdapDnUtil;
 
 /**
@@ -29,12 +44,20 @@ import org.acme.auth.utils.LdapDnUtil;
 @RequiredArgsConstructor
 public class LdapUserServiceImpl implements LdapUserService {
 
+    /** Attributes read by {@link UserContextMapper}; roles come from group searches. */
+    private static final String[] USER_ATTRIBUTES = { "givenName", "sn", "certificateIssuerDN" };
+
+    /** Attributes read from groups in batch role lookups; the role name comes from the DN. */
+    private static final String[] GROUP_ATTRIBUTES = { "member" };
+
     private final LdapTemplate ldapTemplate;
+    private final GroupMembershipIndex groupMembershipIndex;
 
     @Value("${spring.ldap.base}")
     private String ldapBase;
 
     @Override
+    @Cacheable(cacheNames = USERS_CACHE, key = "#p0", condition = "#p0 != null", sync = true)
     public UserInfoResponse findByDn(String dn) {
         log.debug("findByDn called with DN: {}", dn);
         if (!StringUtils.hasText(dn)) {
@@ -67,40 +90,11 @@ public class LdapUserServiceImpl implements LdapUserService {
             try {
                 String cn = LdapDnUtil.extractCn(dn);
                 if (cn != null) {
-                    log.debug("Searching for user with CN '{}' (case-insensitive)", cn);
-
-                    List<UserInfoResponse> users = ldapTemplate.search(
-                            "",
-                            "(objectClass=inetOrgPerson)",
-                            (ContextMapper<UserInfoResponse>) ctx -> {
-                                if (ctx instanceof DirContextAdapter adapter) {
-                                    String entryDn = adapter.getDn().toString();
-                                    String fullDn = LdapDnUtil.ensureFullDn(entryDn, ldapBase);
-                                    log.debug("Mapped entry DN: {} -> {}", entryDn, fullDn);
-                                    return new UserContextMapper(fullDn).mapFromContext(ctx);
-                                }
-                                return null;
-                            });
-
-                    log.debug("Found {} inetOrgPerson entries, filtering by CN '{}'", users.size(), cn);
-
-                    UserInfoResponse found = users.stream()
-                            .filter(u -> {
-                                String userCn = LdapDnUtil.extractCn(u.getSubjectDn());
-                                boolean matches = userCn != null && userCn.equalsIgnoreCase(cn);
-                                if (matches) {
-                                    log.debug("Matched user: SubjectDN={}, CN={}", u.getSubjectDn(), userCn);
-                                }
-                                return matches;
-                            })
-                            .findFirst()
-                            .orElse(null);
-
-                    if (found != null) {
+                    user = searchByCn(cn);
+                    if (user != null) {
                         log.debug("Found user in LDAP via case-insensitive CN search: {} (matched CN: {})",
-                                found.getSubjectDn(), cn);
-                        user = found;
-                        actualDn = found.getSubjectDn();
+                                user.getSubjectDn(), cn);
+                        actualDn = user.getSubjectDn();
                     } else {
                         log.debug("No user found matching CN '{}' (case-insensitive) from DN: {}", cn, dn);
                     }
@@ -115,10 +109,13 @@ public class LdapUserServiceImpl implements LdapUserService {
             throw new UserNotFoundException(dn);
         }
 
-        // Query groups to find which groups contain this user as a member
-        // (memberOf overlay is not enabled, so we query groups directly)
+        // Resolve groups containing this user as a member from the membership index,
+        // or query them directly (memberOf overlay is not enabled)
         String userDnForQuery = actualDn != null ? actualDn : user.getSubjectDn();
-        List<String> roles = queryUserRoles(userDnForQuery);
+        List<String> roles = groupMembershipIndex.rolesFor(userDnForQuery);
+        if (roles == null) {
+            roles = queryUserRoles(userDnForQuery);
+        }
         log.debug("Found {} roles for user {}: {}", roles.size(), user.getSubjectDn(), roles);
 
         // Return user with roles populated
@@ -131,6 +128,151 @@ public class LdapUserServiceImpl implements LdapUserService {
                 .build();
     }
 
+    @Override
+    public Map<String, UserInfoResponse> findAllByDn(List<String> dns) {
+        Set<String> cns = new LinkedHashSet<>();
+        for (String dn : dns) {
+            String cn = StringUtils.hasText(dn) ? LdapDnUtil.extractCn(dn) : null;
+            if (cn != null) {
+                cns.add(cn.toLowerCase(Locale.ROOT));
+            }
+        }
+        if (cns.isEmpty()) {
+            return Map.of();
+        }
+
+        // One search for all users: (&(objectClass=inetOrgPerson)(|(cn=a)(cn=b)...))
+        OrFilter cnFilter = new OrFilter();
+        cns.forEach(cn -> cnFilter.or(new EqualsFilter("cn", cn)));
+        AndFilter userFilter = new AndFilter()
+                .and(new EqualsFilter("objectClass", "inetOrgPerson"))
+                .and(cnFilter);
+        List<UserInfoResponse> entries = ldapTemplate.search(LdapQueryBuilder.query()
+                .attributes(USER_ATTRIBUTES)
+                .filter(userFilter), (ContextMapper<UserInfoResponse>) this::mapUserEntry);
+        log.debug("Batch search for {} CNs returned {} entries", cns.size(), entries.size());
+
+        Map<String, UserInfoResponse> entriesByDn = new HashMap<>();
+        Map<String, UserInfoResponse> entriesByCn = new HashMap<>();
+        for (UserInfoResponse entry : entries) {
+            entriesByDn.putIfAbsent(DnUtil.normalize(entry.getSubjectDn()), entry);
+            String cn = LdapDnUtil.extractCn(entry.getSubjectDn());
+            if (cn != null) {
+                entriesByCn.putIfAbsent(cn.toLowerCase(Locale.ROOT), entry);
+            }
+        }
+
+        // Same precedence as findByDn: exact DN first, then case-insensitive CN
+        Map<String, UserInfoResponse> matches = new LinkedHashMap<>();
+        for (String dn : dns) {
+            if (!StringUtils.hasText(dn)) {
+                continue;
+            }
+            UserInfoResponse entry = entriesByDn.get(DnUtil.normalize(dn));
+            if (entry == null) {
+                String cn = LdapDnUtil.extractCn(dn);
+                entry = cn != null ? entriesByCn.get(cn.toLowerCase(Locale.ROOT)) : null;
+            }
+            if (entry != null) {
+                matches.put(dn, entry);
+            }
+        }
+
+        Map<String, List<String>> rolesByUserDn = queryRolesByUserDn(
+                matches.values().stream().map(UserInfoResponse::getSubjectDn).distinct().toList());
+
+        Map<String, UserInfoResponse> result = new LinkedHashMap<>();
+        matches.forEach((dn, entry) -> result.put(dn, UserInfoResponse.builder()
+                .subjectDn(dn) // Use requested DN, as findByDn does
+                .issuerDn(entry.getIssuerDn())
+                .givenName(entry.getGivenName())
+                .surname(entry.getSurname())
+                .roles(rolesByUserDn.getOrDefault(DnUtil.normalize(entry.getSubjectDn()), List.of()))
+                .build()));
+        return result;
+    }
+
+    /**
+     * Searches for the user entry with the given CN. The CN attribute uses a
+     * case-insensitive matching rule, so the directory does the case-insensitive
+     * match (using its equality index) and returns at most one entry carrying only
+     * the attributes {@link UserContextMapper} reads.
+     *
+     * @param cn the CN value (escaped when encoded into the filter)
+     * @return the matching user, or null if none
+     */
+    private UserInfoResponse searchByCn(String cn) {
+        log.debug("Searching for user with CN '{}' (case-insensitive)", cn);
+        // (&(objectClass=inetOrgPerson)(cn=<escaped cn>)), size limit 1; LdapTemplate
+        // ignores the size-limit-exceeded error if several entries share the CN
+        List<UserInfoResponse> users = ldapTemplate.search(LdapQueryBuilder.query()
+                .countLimit(1)
+                .attributes(USER_ATTRIBUTES)
+                .where("objectClass").is("inetOrgPerson")
+                .and("cn").is(cn), (ContextMapper<UserInfoResponse>) this::mapUserEntry);
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    private UserInfoResponse mapUserEntry(Object ctx) throws NamingException {
+        if (ctx instanceof DirContextAdapter adapter) {
+            String fullDn = LdapDnUtil.ensureFullDn(adapter.getDn().toString(), ldapBase);
+            return new UserContextMapper(fullDn).mapFromContext(ctx);
+        }
+        return null;
+    }
+
+    /**
+     * Batch variant of {@link #queryUserRoles(String)}: one search for all groups
+     * with any of the given users as a member, or index lookups once the
+     * {@link GroupMembershipIndex} is built.
+     *
+     * @param userDns full user DNs
+     * @return role names keyed by normalized user DN
+     */
+    private Map<String, List<String>> queryRolesByUserDn(List<String> userDns) {
+        Map<String, List<String>> rolesByUserDn = new HashMap<>();
+        if (userDns.isEmpty()) {
+            return rolesByUserDn;
+        }
+        if (groupMembershipIndex.isBuilt()) {
+            userDns.forEach(userDn -> rolesByUserDn.put(DnUtil.normalize(userDn),
+                    groupMembershipIndex.rolesFor(userDn)));
+            return rolesByUserDn;
+        }
+        Set<String> normalizedUserDns = new LinkedHashSet<>();
+        OrFilter memberFilter = new OrFilter();
+        for (String userDn : userDns) {
+            normalizedUserDns.add(DnUtil.normalize(userDn));
+            memberFilter.or(new EqualsFilter("member", userDn));
+        }
+
+        try {
+            List<DirContextAdapter> groups = ldapTemplate.search(LdapQueryBuilder.query()
+                    .attributes(GROUP_ATTRIBUTES)
+                    .filter(memberFilter),
+                    (ContextMapper<DirContextAdapter>) ctx -> ctx instanceof DirContextAdapter adapter ? adapter
+                            : null);
+            log.debug("Found {} groups for {} users", groups.size(), userDns.size());
+
+            for (DirContextAdapter group : groups) {
+                String roleName = LdapDnUtil.extractCn(LdapDnUtil.ensureFullDn(group.getDn().toString(), ldapBase));
+                String[] members = group.getStringAttributes("member");
+                if (roleName == null || members == null) {
+                    continue;
+                }
+                for (String member : members) {
+                    String normalizedMember = DnUtil.normalize(member);
+                    if (normalizedUserDns.contains(normalizedMember)) {
+                        rolesByUserDn.computeIfAbsent(normalizedMember, key -> new ArrayList<>()).add(roleName);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error querying roles for {} users", userDns.size(), e);
+        }
+        return rolesByUserDn;
+    }
+
     /**
      * Queries LDAP groups to find which groups contain the given user DN as a
      * member.
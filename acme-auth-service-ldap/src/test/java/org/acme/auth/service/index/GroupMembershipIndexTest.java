@@ -0,0 +1,128 @@
+package org.acme.auth.service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.support.LdapContextSource;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GroupMembershipIndexTest {
+
+    private static final String BASE = "dc=corp,dc=acme,dc=org";
+    private static final String JOHN = "cn=jdoe,ou=users," + BASE;
+    private static final String JANE = "cn=jsmith,ou=users," + BASE;
+    private static final String READ_WRITE = "cn=ACME_READ_WRITE,ou=groups," + BASE;
+    private static final String READ_ONLY = "cn=ACME_READ_ONLY,ou=groups," + BASE;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private InMemoryDirectoryServer server;
+    private LdapTemplate ldapTemplate;
+
+    @BeforeEach
+    void startDirectory() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE);
+        config.setSchema(null);
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: " + BASE, "objectClass: domain", "dc: corp");
+        server.add("dn: ou=groups," + BASE, "objectClass: organizationalUnit", "ou: groups");
+        server.add("dn: " + READ_WRITE, "objectClass: groupOfNames", "cn: ACME_READ_WRITE", "member: " + JOHN);
+        server.add("dn: " + READ_ONLY, "objectClass: groupOfNames", "cn: ACME_READ_ONLY", "member: " + JOHN,
+                "member: " + JANE);
+        server.startListening();
+
+        LdapContextSource contextSource = new LdapContextSource();
+        contextSource.setUrl("ldap://localhost:" + server.getListenPort());
+        contextSource.setBase(BASE);
+        contextSource.setAnonymousReadOnly(true);
+        contextSource.afterPropertiesSet();
+        ldapTemplate = new LdapTemplate(contextSource);
+    }
+
+    @AfterEach
+    void stopDirectory() {
+        server.shutDown(true);
+    }
+
+    private GroupMembershipIndex index(boolean enabled) {
+        return new GroupMembershipIndex(ldapTemplate, meterRegistry, enabled, Duration.ofSeconds(30), BASE);
+    }
+
+    private double refreshes(String type, String result) {
+        return meterRegistry.get(GroupMembershipIndex.REFRESH_METRIC).tag("type", type).tag("result", result)
+                .timer().count();
+    }
+
+    @Test
+    void rolesFor_shouldReturnNull_untilBuilt() {
+        GroupMembershipIndex index = index(true);
+
+        assertFalse(index.isBuilt());
+        assertNull(index.rolesFor(JOHN));
+    }
+
+    @Test
+    void refresh_shouldBuildIndex_fromAllGroups() {
+        GroupMembershipIndex index = index(true);
+
+        index.refresh();
+
+        assertTrue(index.isBuilt());
+        assertEquals(List.of("ACME_READ_ONLY", "ACME_READ_WRITE"), index.rolesFor("CN=JDoe, OU=Users," + BASE)
+                .stream().sorted().toList());
+        assertEquals(List.of("ACME_READ_ONLY"), index.rolesFor(JANE));
+        assertEquals(List.of(), index.rolesFor("cn=nobody,ou=users," + BASE));
+        assertEquals(2, meterRegistry.get(GroupMembershipIndex.SIZE_METRIC).gauge().value());
+        assertEquals(1, refreshes("full", "success"));
+    }
+
+    @Test
+    void refresh_shouldPickUpModifiedAndDeletedGroups() throws Exception {
+        GroupMembershipIndex index = index(true);
+        index.refresh();
+
+        server.modify(READ_WRITE, new Modification(ModificationType.ADD, "member", JANE));
+        server.delete(READ_ONLY);
+        index.refresh();
+
+        assertEquals(List.of("ACME_READ_WRITE"), index.rolesFor(JOHN));
+        assertEquals(List.of("ACME_READ_WRITE"), index.rolesFor(JANE));
+        assertEquals(1, refreshes("incremental", "success"));
+    }
+
+    @Test
+    void refresh_shouldKeepSnapshot_whenDirectoryUnavailable() {
+        GroupMembershipIndex index = index(true);
+        index.refresh();
+
+        server.shutDown(true);
+        index.refresh();
+
+        assertEquals(List.of("ACME_READ_ONLY"), index.rolesFor(JANE));
+        assertEquals(1, refreshes("incremental", "failure"));
+        assertTrue(meterRegistry.get(GroupMembershipIndex.STALENESS_METRIC).gauge().value() >= 0);
+    }
+
+    @Test
+    void disabledIndex_shouldNotRegisterMetrics() {
+        index(false);
+
+        assertTrue(meterRegistry.find(GroupMembershipIndex.SIZE_METRIC).gauges().isEmpty());
+    }
+}
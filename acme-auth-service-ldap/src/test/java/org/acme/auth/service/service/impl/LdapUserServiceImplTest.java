@@ -0,0 +1,166 @@
+package org.acme.auth.service.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSearchEntry;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.ldap.sdk.Entry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.service.dto.UserInfoResponse;
+import org.acme.auth.service.exception.UserNotFoundException;
+import org.acme.auth.service.index.GroupMembershipIndex;
+
+/**
+ * Runs {@link LdapUserServiceImpl} against an in-process directory. The CN
+ * fallback is guarded by counting the user entries the directory sends back:
+ * it must not grow with the directory size.
+ */
+class LdapUserServiceImplTest {
+
+    private static final String BASE = "dc=corp,dc=acme,dc=org";
+    private static final int USER_COUNT = 5000;
+
+    private static final AtomicInteger userEntriesSent = new AtomicInteger();
+    private static final Set<String> groupAttributesSent = ConcurrentHashMap.newKeySet();
+
+    private static InMemoryDirectoryServer server;
+    private static LdapUserServiceImpl service;
+
+    @BeforeAll
+    static void startDirectory() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE);
+        config.setSchema(null); // certificateIssuerDN is a custom attribute
+        config.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor() {
+            @Override
+            public void processSearchEntry(InMemoryInterceptedSearchEntry request) {
+                if (request.getSearchEntry().hasObjectClass("inetOrgPerson")) {
+                    userEntriesSent.incrementAndGet();
+                }
+                if (request.getSearchEntry().getDN().endsWith(",ou=groups," + BASE)) {
+                    request.getSearchEntry().getAttributes()
+                            .forEach(attribute -> groupAttributesSent.add(attribute.getName()));
+                }
+            }
+        });
+        server = new InMemoryDirectoryServer(config);
+
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry("dn: " + BASE, "objectClass: domain", "dc: corp"));
+        entries.add(new Entry("dn: ou=users," + BASE, "objectClass: organizationalUnit", "ou: users"));
+        entries.add(new Entry("dn: ou=groups," + BASE, "objectClass: organizationalUnit", "ou: groups"));
+        for (int i = 0; i < USER_COUNT; i++) {
+            entries.add(new Entry("dn: cn=user" + i + ",ou=users," + BASE,
+                    "objectClass: inetOrgPerson",
+                    "cn: user" + i,
+                    "givenName: User",
+                    "sn: " + i,
+                    "certificateIssuerDN: cn=Acme Root CA,o=Acme,c=US"));
+        }
+        entries.add(new Entry("dn: cn=ACME_READ_WRITE,ou=groups," + BASE,
+                "objectClass: groupOfNames",
+                "cn: ACME_READ_WRITE",
+                "member: cn=user42,ou=users," + BASE));
+        server.addEntries(entries);
+        server.startListening();
+
+        LdapContextSource contextSource = new LdapContextSource();
+        contextSource.setUrl("ldap://localhost:" + server.getListenPort());
+        contextSource.setBase(BASE);
+        contextSource.setAnonymousReadOnly(true);
+        contextSource.afterPropertiesSet();
+
+        LdapTemplate ldapTemplate = new LdapTemplate(contextSource);
+        GroupMembershipIndex disabledIndex = new GroupMembershipIndex(ldapTemplate, new SimpleMeterRegistry(), false,
+                Duration.ofSeconds(30), BASE);
+        service = new LdapUserServiceImpl(ldapTemplate, disabledIndex);
+        ReflectionTestUtils.setField(service, "ldapBase", BASE);
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        server.shutDown(true);
+    }
+
+    @BeforeEach
+    void resetCounter() {
+        userEntriesSent.set(0);
+        groupAttributesSent.clear();
+    }
+
+    @Test
+    void findAllByDn_shouldReadOnlyMemberAttributeOfGroups() {
+        String userDn = "cn=user42,ou=users," + BASE;
+
+        Map<String, UserInfoResponse> users = service.findAllByDn(List.of(userDn, "cn=user43,ou=users," + BASE));
+
+        assertEquals(List.of("ACME_READ_WRITE"), users.get(userDn).getRoles());
+        // objectClass comes back with any attribute list; cn and the operational
+        // attributes must not
+        assertTrue(Set.of("objectClass", "member").containsAll(groupAttributesSent), groupAttributesSent::toString);
+    }
+
+    @Test
+    void findByDn_shouldFindUserByExactDn() {
+        UserInfoResponse user = service.findByDn("cn=user42,ou=users," + BASE);
+
+        assertEquals("42", user.getSurname());
+        assertEquals(List.of("ACME_READ_WRITE"), user.getRoles());
+    }
+
+    @Test
+    void findByDn_shouldFindUserByCn_andTransferOnlyThatEntry() {
+        // Certificate DN with a different structure: the exact lookup misses
+        String certificateDn = "CN=User42,OU=Engineering,O=Acme,C=US";
+
+        UserInfoResponse user = service.findByDn(certificateDn);
+
+        assertEquals(certificateDn, user.getSubjectDn());
+        assertEquals("User", user.getGivenName());
+        assertEquals("cn=Acme Root CA,o=Acme,c=US", user.getIssuerDn());
+        assertEquals(List.of("ACME_READ_WRITE"), user.getRoles());
+        assertEquals(1, userEntriesSent.get());
+    }
+
+    @Test
+    void findByDn_shouldEscapeCn_inFallbackSearch() {
+        assertThrows(UserNotFoundException.class, () -> service.findByDn("CN=user4*,OU=Engineering,O=Acme,C=US"));
+
+        assertEquals(0, userEntriesSent.get());
+    }
+
+    @Test
+    void findByDn_fallbackCost_shouldNotDependOnDirectorySize() {
+        int lookups = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            service.findByDn("CN=USER" + (i * (USER_COUNT / lookups)) + ",OU=Engineering,O=Acme,C=US");
+        }
+        long avgMicros = (System.nanoTime() - start) / lookups / 1_000;
+
+        assertEquals(lookups, userEntriesSent.get(),
+                "CN fallback transferred more than one entry per lookup (avg " + avgMicros + "µs/lookup)");
+        assertTrue(avgMicros < 50_000, "CN fallback took " + avgMicros + "µs/lookup");
+    }
+}
@@ -0,0 +1,52 @@
+package org.acme.auth.utils;
+
+/**
+ * Bounded, lock-free memo from raw DN strings (as received in headers) to their
+ * normalized form.
+ * <p>
+ * Direct-mapped: each raw string hashes to one slot and a newer entry simply
+ * replaces an older one, so memory is bounded by the slot count and a hit costs
+ * one array read and one {@link String#equals(Object)}. Entries are immutable,
+ * so racing readers see either the old or the new entry, never a torn one.
+ */
+final class DnMemo {
+
+    /**
+     * Longer inputs are not memoized so that oversized headers cannot pin memory.
+     */
+    static final int MAX_KEY_LENGTH = 1024;
+
+    private final Entry[] slots;
+    private final int mask;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    DnMemo(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the memoized value, or null if absent
+     */
+    String get(String raw) {
+        Entry entry = slots[index(raw)];
+        return entry != null && entry.raw.equals(raw) ? entry.normalized : null;
+    }
+
+    void put(String raw, String normalized) {
+        if (raw.length() <= MAX_KEY_LENGTH) {
+            slots[index(raw)] = new Entry(raw, normalized);
+        }
+    }
+
+    private int index(String raw) {
+        int hash = raw.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private record Entry(String raw, String normalized) {
+    }
+}
@@ -0,0 +1,218 @@
+package org.acme.auth.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hand-written, allocation-light parser for the common subset of RFC 4514 DNs
+ * seen in certificate headers and LDAP entries.
+ * <p>
+ * The parser only accepts DNs whose {@link javax.naming.ldap.LdapName} form can
+ * be derived without unescaping: single-valued RDNs with plain attribute types
+ * and values free of escapes, quotes, hex values and characters that
+ * {@link javax.naming.ldap.Rdn} would re-escape. For anything else it returns
+ * {@code null} and callers fall back to the {@code LdapName} path, so results
+ * are identical to it by construction.
+ * <p>
+ * RDNs are recorded as offsets into the input string ({@code typeStart,
+ * typeEnd, valueStart, valueEnd} per RDN, in string order); nothing else is
+ * allocated until the result is built.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class DnParser {
+
+    private static final int FIELDS = 4;
+
+    /**
+     * Same result as the {@code LdapName} based normalization in {@link DnUtil}
+     * (CN RDNs first, whitespace normalized, lowercased).
+     *
+     * @param dn the trimmed DN
+     * @return the normalized DN, or null if the DN needs the {@code LdapName} path
+     */
+    static String normalize(String dn) {
+        int[] rdns = parse(dn);
+        if (rdns == null) {
+            return null;
+        }
+        int count = rdns.length / FIELDS;
+
+        StringBuilder joined = new StringBuilder(dn.length());
+        // LdapName lists RDNs right to left; DnUtil emits CNs in that order, then
+        // the other RDNs right to left if the rightmost RDN is a CN (reverse order
+        // DN) or left to right otherwise.
+        for (int i = count - 1; i >= 0; i--) {
+            if (isCn(dn, rdns, i)) {
+                append(joined, dn, rdns, i);
+            }
+        }
+        if (isCn(dn, rdns, count - 1)) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (!isCn(dn, rdns, i)) {
+                    append(joined, dn, rdns, i);
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (!isCn(dn, rdns, i)) {
+                    append(joined, dn, rdns, i);
+                }
+            }
+        }
+        return normalizeWhitespace(joined).toLowerCase();
+    }
+
+    /**
+     * Same result as iterating {@code LdapName.getRdns()} for the first RDN of
+     * the given type (i.e. the rightmost one) and returning its value.
+     *
+     * @param dn   the DN
+     * @param rdns the offsets returned by {@link #parse(String)} for {@code dn}
+     * @return the value, or null if no RDN has that type
+     */
+    static String findValue(String dn, int[] rdns, String attributeType) {
+        for (int i = rdns.length / FIELDS - 1; i >= 0; i--) {
+            int typeStart = rdns[i * FIELDS];
+            int typeLength = rdns[i * FIELDS + 1] - typeStart;
+            if (typeLength == attributeType.length()
+                    && dn.regionMatches(true, typeStart, attributeType, 0, typeLength)) {
+                return dn.substring(rdns[i * FIELDS + 2], rdns[i * FIELDS + 3]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the DN into RDN offsets, mirroring {@code Rfc2253Parser} for the
+     * supported subset.
+     *
+     * @return offsets per RDN in string order, or null if unsupported
+     */
+    static int[] parse(String dn) {
+        int len = dn.length();
+        int count = 1;
+        for (int i = 0; i < len; i++) {
+            char c = dn.charAt(i);
+            if (c == ',') {
+                count++;
+            } else if (!isSupported(c)) {
+                return null;
+            }
+        }
+
+        int[] rdns = new int[count * FIELDS];
+        int cur = 0;
+        for (int rdn = 0; rdn < count; rdn++) {
+            cur = skipSpaces(dn, cur);
+            int typeStart = cur;
+            while (cur < len && isTypeChar(dn.charAt(cur))) {
+                cur++;
+            }
+            int typeEnd = cur;
+            cur = skipSpaces(dn, cur);
+            if (typeStart == typeEnd || cur >= len || dn.charAt(cur) != '=') {
+                return null;
+            }
+            cur = skipSpaces(dn, cur + 1);
+
+            int valueStart = cur;
+            while (cur < len && dn.charAt(cur) != ',') {
+                if (dn.charAt(cur) == '=') {
+                    return null;
+                }
+                cur++;
+            }
+            int valueEnd = cur;
+            while (valueEnd > valueStart && dn.charAt(valueEnd - 1) == ' ') {
+                valueEnd--;
+            }
+            if (valueStart == valueEnd) {
+                return null;
+            }
+            cur++; // consume ','
+
+            int offset = rdn * FIELDS;
+            rdns[offset] = typeStart;
+            rdns[offset + 1] = typeEnd;
+            rdns[offset + 2] = valueStart;
+            rdns[offset + 3] = valueEnd;
+        }
+        return rdns;
+    }
+
+    /**
+     * Equivalent of {@code replaceAll("\\s+", " ")}, then removing whitespace
+     * around {@code ,} and {@code =}, then {@code trim()}.
+     */
+    static String normalizeWhitespace(CharSequence dn) {
+        int len = dn.length();
+        StringBuilder result = new StringBuilder(len);
+        int i = 0;
+        while (i < len) {
+            char c = dn.charAt(i);
+            if (!isRegexWhitespace(c)) {
+                result.append(c);
+                i++;
+                continue;
+            }
+            int runEnd = i + 1;
+            while (runEnd < len && isRegexWhitespace(dn.charAt(runEnd))) {
+                runEnd++;
+            }
+            if (!result.isEmpty() && runEnd < len
+                    && !isSeparator(result.charAt(result.length() - 1))
+                    && !isSeparator(dn.charAt(runEnd))) {
+                result.append(' ');
+            }
+            i = runEnd;
+        }
+        return result.toString();
+    }
+
+    private static void append(StringBuilder joined, String dn, int[] rdns, int rdn) {
+        if (!joined.isEmpty()) {
+            joined.append(',');
+        }
+        int offset = rdn * FIELDS;
+        joined.append(dn, rdns[offset], rdns[offset + 1])
+                .append('=')
+                .append(dn, rdns[offset + 2], rdns[offset + 3]);
+    }
+
+    private static boolean isCn(String dn, int[] rdns, int rdn) {
+        int typeStart = rdns[rdn * FIELDS];
+        return rdns[rdn * FIELDS + 1] - typeStart == 2 && dn.regionMatches(true, typeStart, "cn", 0, 2);
+    }
+
+    private static int skipSpaces(String dn, int cur) {
+        while (cur < dn.length() && dn.charAt(cur) == ' ') {
+            cur++;
+        }
+        return cur;
+    }
+
+    private static boolean isTypeChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '-';
+    }
+
+    /**
+     * Characters that can be taken over verbatim: no escapes, quotes, multi-valued
+     * RDNs, alternative separators, or characters {@code Rdn} would escape on
+     * output; no control characters other than {@code \s} whitespace.
+     */
+    private static boolean isSupported(char c) {
+        return switch (c) {
+            case '\\', '"', '+', ';', '#', '<', '>', '\r' -> false;
+            case '\t', '\n', '\u000B', '\f' -> true;
+            default -> c >= ' ';
+        };
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == '=';
+    }
+}
@@ -31,11 +31,18 @@ import lombok.extern.slf4j.Slf4j;
  * <li>Whitespace normalization</li>
  * <li>Case normalization (lowercase for attribute types, preserves values)</li>
  * </ul>
+ * <p>
+ * Common DNs (no escapes, quoting or multi-valued RDNs) are handled by
+ * {@link DnParser} without building an {@code LdapName}; results are memoized
+ * per raw input in a bounded {@link DnMemo}, since the same certificate header
+ * arrives on every request.
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class DnUtil {
 
+    private static final DnMemo MEMO = new DnMemo(1024);
+
     /**
      * Normalizes a Distinguished Name for consistent caching and comparison.
      * <p>
@@ -74,9 +81,31 @@ public final class DnUtil {
             return null;
         }
 
+        String normalized = MEMO.get(dn);
+        if (normalized == null) {
+            normalized = normalizeUncached(dn);
+            MEMO.put(dn, normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * {@link #normalize(String)} without the memo; the input must not be blank.
+     */
+    static String normalizeUncached(String dn) {
+        String trimmed = dn.trim();
+        String normalized = DnParser.normalize(trimmed);
+        return normalized != null ? normalized : normalizeWithLdapName(trimmed);
+    }
+
+    /**
+     * The reference {@link LdapName} based normalization, used for DNs outside
+     * the {@link DnParser} subset; the input must be trimmed and not blank.
+     */
+    static String normalizeWithLdapName(String dn) {
         try {
             // Use RFC 4514 compliant DN parsing to handle order variations
-            LdapName ldapName = new LdapName(dn.trim());
+            LdapName ldapName = new LdapName(dn);
 
             // Normalize DN order (ensures CN comes first, handles reverse order from NGINX)
             String normalizedDn = normalizeDnOrder(ldapName);
@@ -19,7 +19,9 @@ import lombok.extern.slf4j.Slf4j;
  * values.
  * <p>
  * Uses standard JDK {@link LdapName} for RFC 4514 compliant DN parsing,
- * properly handling escaped characters and edge cases.
+ * properly handling escaped characters and edge cases. Attribute extraction
+ * reads common DNs (no escapes, quoting or multi-valued RDNs) via
+ * {@link DnParser} without building an {@code LdapName}.
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -39,24 +41,7 @@ public final class LdapDnUtil {
      * @return the CN value, or null if not found or invalid DN format
      */
     public static String extractCn(String dn) {
-        if (!StringUtils.hasText(dn)) {
-            return null;
-        }
-        try {
-            LdapName ldapName = new LdapName(dn);
-            // Iterate through all RDNs to find CN (CN can be in any position)
-            for (Rdn rdn : ldapName.getRdns()) {
-                if ("cn".equalsIgnoreCase(rdn.getType())) {
-                    Object value = rdn.getValue();
-                    return value != null ? value.toString() : null;
-                }
-            }
-        } catch (InvalidNameException e) {
-            log.debug("Invalid DN format for CN extraction: {}", dn, e);
-        } catch (Exception e) {
-            log.debug("Error extracting CN from DN: {}", dn, e);
-        }
-        return null;
+        return extractAttribute(dn, "cn");
     }
 
     /**
@@ -75,6 +60,10 @@ public final class LdapDnUtil {
         if (!StringUtils.hasText(dn) || !StringUtils.hasText(attributeType)) {
             return null;
         }
+        int[] rdns = DnParser.parse(dn);
+        if (rdns != null) {
+            return DnParser.findValue(dn, rdns, attributeType);
+        }
         try {
             LdapName ldapName = new LdapName(dn);
             // Iterate through all RDNs to find the specified attribute
@@ -0,0 +1,52 @@
+package org.acme.auth.utils;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-memory index of the DNs clients looked up recently, served by the auth
+ * services at {@code GET /api/auth/users/recent} so freshly started API
+ * instances can warm up their user caches with the users that are actually
+ * active.
+ * <p>
+ * Bounded by a maximum size; DNs not looked up for the expiry duration are
+ * dropped. Ranking follows Caffeine's eviction policy, which weighs both
+ * recency and frequency, so one-off lookups do not push out the regular users.
+ * Each replica only knows its own lookups, which is a representative sample
+ * while clients spread their calls over the replicas.
+ */
+public class RecentLookupIndex {
+
+    private final Cache<String, Boolean> recent;
+
+    /**
+     * @param maxSize     maximum number of DNs kept
+     * @param expireAfter DNs not looked up for this long are dropped
+     */
+    public RecentLookupIndex(long maxSize, Duration expireAfter) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfter)
+                .build();
+    }
+
+    /**
+     * Records a lookup of a (found) user.
+     */
+    public void record(String dn) {
+        recent.get(dn, key -> Boolean.TRUE);
+    }
+
+    /**
+     * Returns up to {@code limit} DNs, most active first.
+     */
+    public List<String> hottest(int limit) {
+        return recent.policy()
+                .eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElseGet(List::of);
+    }
+}
@@ -0,0 +1,58 @@
+package org.acme.auth.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Computes the entity tag the auth services send with user lookups, so clients
+ * can revalidate cached users with {@code If-None-Match} and get a body-less
+ * 304 when nothing changed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UserInfoETagUtil {
+
+    /**
+     * Hash of subject DN, issuer DN, names and roles. Roles are sorted first, so
+     * the tag does not depend on the order the backing store returns them in.
+     *
+     * @return the entity tag value (unquoted)
+     */
+    public static String etag(String subjectDn, String issuerDn, String givenName, String surname,
+            List<String> roles) {
+        MessageDigest digest = sha256();
+        update(digest, subjectDn);
+        update(digest, issuerDn);
+        update(digest, givenName);
+        update(digest, surname);
+        List<String> sortedRoles = roles != null ? roles.stream().sorted().toList() : List.of();
+        for (String role : sortedRoles) {
+            update(digest, role);
+        }
+        // 128 bits are plenty to tell versions of one user apart
+        byte[] hash = digest.digest();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") hash differently
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
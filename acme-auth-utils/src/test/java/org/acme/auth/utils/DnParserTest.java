@@ -0,0 +1,78 @@
+package org.acme.auth.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DnParserTest {
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {
+            "CN=John Doe,OU=Engineering,DC=example,DC=com",
+            "cn=john doe,ou=engineering,dc=example,dc=com",
+            "DC=org,DC=acme,DC=corp,OU=users,OU=engineering,CN=jdoe",
+            "CN = John    Doe , OU = Engineering , DC = example , DC = com",
+            "CN=John\tDoe,OU=Engineering\n,DC=example,DC=com",
+            "CN=\tJohn Doe,OU=Engineering,DC=example,DC=com",
+            "OU=Engineering,CN=John Doe,DC=example,DC=com",
+            "cn=First CN,cn=Second CN,ou=Engineering",
+            "ou=Engineering,dc=example,dc=com",
+            "dc=com,dc=example,ou=Engineering",
+            "2.5.4.3=John Doe,O=Acme-Corp",
+            "CN=José Álvarez,OU=Ingeniería,DC=example,DC=com",
+            "CN=Acme Root CA (2024) - v1.0,O=Acme/Org,C=US" })
+    void normalize_shouldMatchLdapNamePath_forSupportedDns(String dn) {
+        assertNotNull(DnParser.parse(dn));
+        assertEquals(DnUtil.normalizeWithLdapName(dn), DnParser.normalize(dn));
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {
+            "CN=User+UID=123,OU=Test,DC=example,DC=com",
+            "cn=John\\, Doe,ou=Engineering,dc=corp,dc=acme,dc=org",
+            "cn=\"John, Doe\",ou=Engineering",
+            "cn=#04024869,ou=Engineering",
+            "cn=a=b,ou=Engineering",
+            "cn=John;ou=Engineering",
+            "cn=John\rDoe,ou=Engineering",
+            "C N=John,ou=Engineering",
+            "cn=,ou=Engineering",
+            "cn=John,",
+            "invalid-dn-format" })
+    void parse_shouldRejectDnsOutsideSupportedSubset(String dn) {
+        assertNull(DnParser.parse(dn));
+        assertNotNull(DnUtil.normalizeUncached(dn));
+    }
+
+    @Test
+    void findValue_shouldReturnRightmostMatchingRdn() {
+        String dn = "cn=First CN,cn=Second CN,ou=Engineering";
+
+        assertEquals("Second CN", DnParser.findValue(dn, DnParser.parse(dn), "CN"));
+        assertEquals("Engineering", DnParser.findValue(dn, DnParser.parse(dn), "ou"));
+        assertNull(DnParser.findValue(dn, DnParser.parse(dn), "uid"));
+    }
+
+    @Test
+    void normalize_shouldReturnMemoizedInstance_forSameRawInput() {
+        String dn = "CN=Memo Test,OU=Engineering,DC=example,DC=com";
+
+        assertSame(DnUtil.normalize(dn), DnUtil.normalize(dn));
+    }
+
+    @Test
+    void memo_shouldReplaceEntries_andSkipOversizedKeys() {
+        DnMemo memo = new DnMemo(1);
+        memo.put("a", "1");
+        memo.put("b", "2");
+        memo.put("x".repeat(DnMemo.MAX_KEY_LENGTH + 1), "3");
+
+        assertEquals("2", memo.get("b"));
+        assertNull(memo.get("x".repeat(DnMemo.MAX_KEY_LENGTH + 1)));
+    }
+}
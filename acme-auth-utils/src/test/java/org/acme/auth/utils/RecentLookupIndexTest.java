@@ -0,0 +1,39 @@
+package org.acme.auth.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class RecentLookupIndexTest {
+
+    private static final String JOHN = "cn=jdoe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String JANE = "cn=jsmith,ou=users,dc=corp,dc=acme,dc=org";
+
+    @Test
+    void hottest_shouldReturnEachRecordedDnOnce() {
+        RecentLookupIndex index = new RecentLookupIndex(100, Duration.ofHours(1));
+
+        index.record(JOHN);
+        index.record(JANE);
+        index.record(JOHN);
+
+        List<String> hottest = index.hottest(10);
+        assertEquals(Set.of(JOHN, JANE), Set.copyOf(hottest));
+        assertEquals(2, hottest.size());
+    }
+
+    @Test
+    void hottest_shouldRespectLimit() {
+        RecentLookupIndex index = new RecentLookupIndex(100, Duration.ofHours(1));
+        index.record(JOHN);
+        index.record(JANE);
+
+        assertEquals(1, index.hottest(1).size());
+        assertTrue(index.hottest(0).isEmpty());
+    }
+}
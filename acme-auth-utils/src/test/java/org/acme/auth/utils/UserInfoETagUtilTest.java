@@ -0,0 +1,32 @@
+package org.acme.auth.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UserInfoETagUtilTest {
+
+    private static final String SUBJECT = "cn=jdoe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String ISSUER = "cn=Acme Root CA,o=Acme,c=US";
+
+    @Test
+    void etag_shouldNotDependOnRoleOrder() {
+        assertEquals(UserInfoETagUtil.etag(SUBJECT, ISSUER, "John", "Doe", List.of("ACME_A", "ACME_B")),
+                UserInfoETagUtil.etag(SUBJECT, ISSUER, "John", "Doe", List.of("ACME_B", "ACME_A")));
+    }
+
+    @Test
+    void etag_shouldChange_whenRolesChange() {
+        assertNotEquals(UserInfoETagUtil.etag(SUBJECT, ISSUER, "John", "Doe", List.of("ACME_A")),
+                UserInfoETagUtil.etag(SUBJECT, ISSUER, "John", "Doe", List.of("ACME_A", "ACME_B")));
+    }
+
+    @Test
+    void etag_shouldSeparateFields() {
+        assertNotEquals(UserInfoETagUtil.etag(SUBJECT, ISSUER, "Jo", "hnDoe", null),
+                UserInfoETagUtil.etag(SUBJECT, ISSUER, "John", "Doe", null));
+    }
+}
@@ -0,0 +1,101 @@
+package org.acme.security.core.cache;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.config.properties.UserCacheProperties;
+
+/**
+ * Caches the final, role-filtered {@link Authentication} per raw
+ * (subject header, issuer header) pair, so a repeat request skips DN
+ * normalization, the issuer check and token building.
+ * <p>
+ * Entries are keyed by both raw headers, so a subject presented under two
+ * issuers (e.g. during a CA rollover) gets one entry per issuer instead of the
+ * two replacing each other. Each entry remembers the {@link UserInfo} instance
+ * it was built from: callers must only use it while the
+ * {@value UserCache#USERS_CACHE} cache still holds that same instance (see
+ * {@link Entry#isBuiltFrom(UserInfo)}), so evicting, expiring or refreshing a
+ * user in the users cache invalidates its principals as well.
+ * <p>
+ * A hit costs two lookups: this cache (whose only allocation is a small,
+ * short-lived key) and the users cache entry for the normalized DN needed by
+ * {@link Entry#isBuiltFrom(UserInfo)}, which may also start a refresh-ahead
+ * reload. The cached token is shared between requests and must not be
+ * mutated. Metrics are published as the standard {@code cache.*} meters with
+ * tag {@code cache=principals}.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String PRINCIPALS_CACHE = "principals";
+
+    private final Cache<Key, Entry> principals;
+
+    public PrincipalCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        if (properties.principalMaxSize() <= 0) {
+            this.principals = null;
+            return;
+        }
+        // Entries never outlive the user they were built from; the hard TTL only
+        // bounds how long principals of evicted users linger.
+        this.principals = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .expireAfterWrite(properties.hardTtl())
+                .maximumSize(properties.principalMaxSize())
+                .recordStats()
+                .<Key, Entry>build(), PRINCIPALS_CACHE);
+    }
+
+    /**
+     * Returns the cached principal for the raw headers, or null. The caller must
+     * still check {@link Entry#isBuiltFrom(UserInfo)} against the users cache.
+     */
+    public Entry get(String subjectHeader, String issuerHeader) {
+        if (principals == null || subjectHeader == null) {
+            return null;
+        }
+        return principals.getIfPresent(new Key(subjectHeader, issuerHeader));
+    }
+
+    public void put(String subjectHeader, String issuerHeader, String normalizedDn, UserInfo userInfo,
+            Authentication authentication) {
+        if (principals == null || subjectHeader == null) {
+            return;
+        }
+        principals.put(new Key(subjectHeader, issuerHeader), new Entry(normalizedDn, userInfo, authentication));
+    }
+
+    public void clear() {
+        if (principals != null) {
+            principals.invalidateAll();
+        }
+    }
+
+    private record Key(String subjectHeader, String issuerHeader) {
+    }
+
+    /**
+     * A cached principal.
+     *
+     * @param normalizedDn   the {@value UserCache#USERS_CACHE} cache key of the user
+     * @param userInfo       the cached user the token was built from
+     * @param authentication the authenticated token
+     */
+    public record Entry(String normalizedDn, UserInfo userInfo, Authentication authentication) {
+
+        /**
+         * Whether this entry is still current, i.e. was built from the user the
+         * users cache currently holds (identity, not equality).
+         */
+        public boolean isBuiltFrom(UserInfo current) {
+            return current != null && current == userInfo;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.acme.security.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent loads for the same key into a single call ("single
+ * flight"). The first caller for a key runs the loader; callers that arrive
+ * while that load is in flight wait for and share its result (or exception)
+ * instead of issuing their own call.
+ * <p>
+ * Nothing is retained once a load completes, so this does not replace a cache;
+ * it only deduplicates the calls made on concurrent cache misses.
+ * <p>
+ * Metrics (tag {@code name}):
+ * <ul>
+ * <li>{@value #LOADS_METRIC} - loads actually executed</li>
+ * <li>{@value #COALESCED_METRIC} - callers that joined an in-flight load</li>
+ * <li>{@value #IN_FLIGHT_METRIC} - keys currently being loaded</li>
+ * </ul>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class SingleFlight<K, V> {
+
+    public static final String LOADS_METRIC = "acme.security.singleflight.loads";
+    public static final String COALESCED_METRIC = "acme.security.singleflight.coalesced";
+    public static final String IN_FLIGHT_METRIC = "acme.security.singleflight.in.flight";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder(LOADS_METRIC)
+                .description("Loads executed after coalescing concurrent callers")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder(COALESCED_METRIC)
+                .description("Callers that shared an in-flight load instead of issuing their own")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, ConcurrentMap::size)
+                .description("Keys with a load currently in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code loader} on the calling thread unless a load for {@code key} is
+     * already in flight, in which case the caller blocks until that load
+     * completes and receives its result.
+     *
+     * @throws RuntimeException whatever the (shared) loader threw
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute(Object, Supplier)}: starts
+     * {@code loader} unless a load for {@code key} is already in flight, and
+     * returns a future shared by every caller for that load.
+     * <p>
+     * Callers must not cancel the returned future; it is shared.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        loads.increment();
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException | Error e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, call);
+            if (error != null) {
+                call.completeExceptionally(unwrap(error));
+            } else {
+                call.complete(value);
+            }
+        });
+        return call;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,331 @@
+package org.acme.security.core.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.auth.client.UserNotFoundException;
+import org.acme.security.core.config.properties.UserCacheProperties;
+
+/**
+ * The {@value #USERS_CACHE} cache shared by the blocking and reactive user
+ * lookup services.
+ * <p>
+ * Wraps the Spring {@link Cache} (Caffeine, configured in application.yml) and
+ * stores {@link UserCacheEntry} values so that refresh-ahead can be applied per
+ * entry (see {@link UserCacheProperties}):
+ * <ul>
+ * <li>younger than {@code soft-ttl}: served as is</li>
+ * <li>between {@code soft-ttl} and {@code hard-ttl}: served as is and refreshed
+ * in the background; a failed refresh keeps the last good value</li>
+ * <li>older than {@code hard-ttl}: treated as a miss, but kept (until the
+ * Caffeine spec expires it) as the {@link #getLastKnown last known} user</li>
+ * </ul>
+ * {@code hard-ttl} applies with and without refresh-ahead, so the Caffeine
+ * {@code expireAfterWrite} only bounds how long a last known user can stand in
+ * while the auth service is unavailable and should be well above it.
+ * When the auth service sends {@code Cache-Control: max-age} with a user, that
+ * value replaces {@code soft-ttl} for the entry (or, without refresh-ahead,
+ * expires it); the Caffeine spec remains the upper bound.
+ * Loads go through a {@link SingleFlight}, so concurrent misses and refreshes
+ * for the same DN share one auth service call. A load still in flight when its
+ * DN is evicted (e.g. by a change event) does not cache its result, since it may
+ * have read the user from before the change.
+ * <p>
+ * DNs the auth service reports as unknown ({@link UserNotFoundException}) are
+ * remembered in a separate, bounded {@value #USERS_NOT_FOUND_CACHE} cache for
+ * {@code not-found-ttl}, so a client sending an unknown DN cannot turn every
+ * request into a directory lookup. Other failures are never cached. Hit/miss
+ * metrics are published as the standard {@code cache.*} meters with tag
+ * {@code cache=users-not-found}.
+ */
+@Slf4j
+@Component
+public class UserCache {
+
+    /**
+     * Name of the Spring cache holding users keyed by normalized DN.
+     */
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Name of the negative cache holding DNs the auth service reported as
+     * unknown.
+     */
+    public static final String USERS_NOT_FOUND_CACHE = "users-not-found";
+
+    public static final String REFRESH_METRIC = "acme.security.user.cache.refresh";
+
+    private final Cache cache;
+    private final Cache notFound;
+    private final UserCacheProperties properties;
+    private final SingleFlight<String, UserInfo> loads;
+    /** Loads in flight per DN, flagged when the DN is evicted before they complete. */
+    private final ConcurrentMap<String, AtomicBoolean> pendingLoads = new ConcurrentHashMap<>();
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private final Counter refreshNotModified;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public UserCache(CacheManager cacheManager, UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this(cacheManager, properties, meterRegistry, System::nanoTime);
+    }
+
+    UserCache(CacheManager cacheManager, UserCacheProperties properties, MeterRegistry meterRegistry,
+            LongSupplier nanoTime) {
+        this.cache = cacheManager.getCache(USERS_CACHE);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + USERS_CACHE);
+        }
+        this.properties = properties;
+        this.notFound = createNotFoundCache(properties, meterRegistry, nanoTime);
+        this.loads = new SingleFlight<>(USERS_CACHE, meterRegistry);
+        this.refreshSuccess = Counter.builder(REFRESH_METRIC)
+                .description("Background refreshes of stale user cache entries")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.refreshFailure = Counter.builder(REFRESH_METRIC)
+                .description("Background refreshes of stale user cache entries")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.refreshNotModified = Counter.builder(REFRESH_METRIC)
+                .description("Background refreshes of stale user cache entries")
+                .tag("result", "not-modified")
+                .register(meterRegistry);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the cached entry for a normalized DN, or null on a miss (including
+     * entries past the hard TTL).
+     */
+    public UserCacheEntry get(String dn) {
+        UserCacheEntry entry = cache.get(dn, UserCacheEntry.class);
+        if (entry == null) {
+            return null;
+        }
+        if (age(entry) >= properties.hardTtl().toNanos()) {
+            log.debug("Cache EXPIRED: cache={}, key={} (older than hard TTL {})", USERS_CACHE, dn,
+                    properties.hardTtl());
+            return null;
+        }
+        Duration maxAge = entry.userInfo().getMaxAge();
+        if (!properties.refreshAhead() && maxAge != null && age(entry) >= maxAge.toNanos()) {
+            log.debug("Cache EXPIRED: cache={}, key={} (older than server max-age {})", USERS_CACHE, dn, maxAge);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the last user loaded for a normalized DN regardless of its age, as
+     * long as the Caffeine spec still holds it. Only meant as a fallback while
+     * the auth service is unavailable.
+     */
+    public UserInfo getLastKnown(String dn) {
+        UserCacheEntry entry = cache.get(dn, UserCacheEntry.class);
+        return entry != null ? entry.userInfo() : null;
+    }
+
+    /**
+     * Caches a user loaded outside of {@link #load} (e.g. by the warm-up), unless
+     * the DN is already cached, since that entry may be fresher.
+     *
+     * @return whether the user was added
+     */
+    public boolean putIfAbsent(String dn, UserInfo userInfo) {
+        return cache.putIfAbsent(dn, new UserCacheEntry(userInfo, nanoTime.getAsLong())) == null;
+    }
+
+    /**
+     * Whether the entry should be served and refreshed in the background: it is
+     * older than the max-age the auth service sent with it, or than
+     * {@code soft-ttl} if there was none.
+     */
+    public boolean isRefreshDue(UserCacheEntry entry) {
+        if (!properties.refreshAhead()) {
+            return false;
+        }
+        Duration maxAge = entry.userInfo().getMaxAge();
+        return age(entry) >= (maxAge != null ? maxAge : properties.softTtl()).toNanos();
+    }
+
+    /**
+     * Loads a user on a miss (single flight per DN) and caches the result.
+     */
+    public UserInfo load(String dn, Supplier<UserInfo> loader) {
+        checkNotFound(dn);
+        return loads.execute(dn, () -> {
+            AtomicBoolean evicted = startLoad(dn);
+            try {
+                return put(dn, loader.get(), evicted);
+            } catch (UserNotFoundException e) {
+                putNotFound(dn, evicted);
+                throw e;
+            } finally {
+                pendingLoads.remove(dn, evicted);
+            }
+        });
+    }
+
+    /**
+     * Non-blocking variant of {@link #load(String, Supplier)}.
+     */
+    public CompletableFuture<UserInfo> loadAsync(String dn, Supplier<CompletableFuture<UserInfo>> loader) {
+        try {
+            checkNotFound(dn);
+        } catch (UserNotFoundException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return loads.executeAsync(dn, () -> startLoadAsync(dn, loader));
+    }
+
+    /**
+     * Refreshes a stale entry in the background. The current entry keeps being
+     * served until the refresh succeeds; on failure it is kept until the hard TTL,
+     * unless the user no longer exists, in which case it is evicted.
+     * <p>
+     * A loader returning the cached {@link UserInfo} instance itself (e.g. after a
+     * 304 revalidation) only restarts the entry's TTL, and is counted as
+     * {@code result=not-modified}.
+     *
+     * @param loader starts the (asynchronous) auth service call
+     */
+    public void refreshAsync(String dn, Supplier<CompletableFuture<UserInfo>> loader) {
+        log.debug("Cache STALE: cache={}, key={}, refreshing in background", USERS_CACHE, dn);
+        UserCacheEntry previous = cache.get(dn, UserCacheEntry.class);
+        loads.executeAsync(dn, () -> startLoadAsync(dn, loader)
+                .whenComplete((userInfo, error) -> {
+                    if (unwrap(error) instanceof UserNotFoundException) {
+                        refreshFailure.increment();
+                        log.info("User no longer exists, evicting: cache={}, key={}", USERS_CACHE, dn);
+                        cache.evict(dn);
+                    } else if (error != null) {
+                        refreshFailure.increment();
+                        log.warn("Background refresh failed, serving last cached value: cache={}, key={}, error={}",
+                                USERS_CACHE, dn, error.getMessage());
+                    } else if (previous != null && userInfo == previous.userInfo()) {
+                        refreshNotModified.increment();
+                    } else {
+                        refreshSuccess.increment();
+                    }
+                }));
+    }
+
+    public void evict(String dn) {
+        // Flag before evicting, so a load that puts after the eviction sees the flag
+        AtomicBoolean evicted = pendingLoads.get(dn);
+        if (evicted != null) {
+            evicted.set(true);
+        }
+        cache.evict(dn);
+        if (notFound != null) {
+            notFound.evict(dn);
+        }
+    }
+
+    public void clear() {
+        pendingLoads.values().forEach(evicted -> evicted.set(true));
+        cache.clear();
+        if (notFound != null) {
+            notFound.clear();
+        }
+    }
+
+    private AtomicBoolean startLoad(String dn) {
+        AtomicBoolean evicted = new AtomicBoolean();
+        pendingLoads.put(dn, evicted);
+        return evicted;
+    }
+
+    private CompletableFuture<UserInfo> startLoadAsync(String dn, Supplier<CompletableFuture<UserInfo>> loader) {
+        AtomicBoolean evicted = startLoad(dn);
+        CompletableFuture<UserInfo> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException | Error e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        return load.thenApply(userInfo -> put(dn, userInfo, evicted))
+                .whenComplete((userInfo, error) -> {
+                    if (unwrap(error) instanceof UserNotFoundException) {
+                        putNotFound(dn, evicted);
+                    }
+                    pendingLoads.remove(dn, evicted);
+                });
+    }
+
+    /**
+     * Caches a loaded user unless its DN was evicted while the load was in flight.
+     * The flag is checked after the put, so an eviction racing with it either
+     * removes the entry itself or is seen here.
+     */
+    private UserInfo put(String dn, UserInfo userInfo, AtomicBoolean evicted) {
+        cache.put(dn, new UserCacheEntry(userInfo, nanoTime.getAsLong()));
+        if (evicted.get()) {
+            log.debug("Cache EVICTED during load, not caching: cache={}, key={}", USERS_CACHE, dn);
+            cache.evict(dn);
+        }
+        return userInfo;
+    }
+
+    private void checkNotFound(String dn) {
+        if (notFound != null && notFound.get(dn) != null) {
+            log.debug("Cache HIT: cache={}, key={}", USERS_NOT_FOUND_CACHE, dn);
+            throw new UserNotFoundException(dn);
+        }
+    }
+
+    private void putNotFound(String dn, AtomicBoolean evicted) {
+        if (notFound != null) {
+            notFound.put(dn, Boolean.TRUE);
+            if (evicted.get()) {
+                notFound.evict(dn);
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static Cache createNotFoundCache(UserCacheProperties properties, MeterRegistry meterRegistry,
+            LongSupplier nanoTime) {
+        if (properties.notFoundTtl().isZero() || properties.notFoundMaxSize() <= 0) {
+            return null;
+        }
+        return new CaffeineCache(USERS_NOT_FOUND_CACHE, CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(properties.notFoundTtl())
+                        .maximumSize(properties.notFoundMaxSize())
+                        .ticker(nanoTime::getAsLong)
+                        .recordStats()
+                        .build(),
+                USERS_NOT_FOUND_CACHE), false);
+    }
+
+    private long age(UserCacheEntry entry) {
+        return nanoTime.getAsLong() - entry.loadedAtNanos();
+    }
+}
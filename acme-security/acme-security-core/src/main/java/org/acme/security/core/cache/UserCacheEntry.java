@@ -0,0 +1,11 @@
+package org.acme.security.core.cache;
+
+import org.acme.auth.client.UserInfo;
+
+/**
+ * Value stored in the {@value UserCache#USERS_CACHE} cache: the looked-up user
+ * and when it was loaded ({@link System#nanoTime()} based), so soft and hard
+ * TTLs can be applied per entry.
+ */
+public record UserCacheEntry(UserInfo userInfo, long loadedAtNanos) {
+}
@@ -0,0 +1,187 @@
+package org.acme.security.core.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.client.AuthServiceClient;
+import org.acme.auth.client.UserChangeSubscriber;
+import org.acme.auth.client.UserInfo;
+import org.acme.auth.utils.DnUtil;
+import org.acme.security.core.config.properties.UserCacheWarmUpProperties;
+import org.acme.security.core.resilience.AuthServiceGuard;
+
+/**
+ * Preloads the {@value UserCache#USERS_CACHE} cache at startup, so a freshly
+ * deployed instance does not send all of its first requests to the auth
+ * service as misses.
+ * <p>
+ * With {@code acme.security.user-cache.warm-up.enabled=true}, once the
+ * application is ready, the users the auth service reports as recently active
+ * ({@link AuthServiceClient#recentUsers(int)}) are loaded with batch lookups,
+ * at most {@code parallelism} at a time, within the {@code timeout} budget (see
+ * {@link UserCacheWarmUpProperties}). It runs in the background; the
+ * {@code userCacheWarmUp} health indicator keeps the readiness probe
+ * {@code OUT_OF_SERVICE} until it is over, and reports its progress. The
+ * warm-up is best effort: whatever its outcome, the instance becomes ready
+ * and remaining users are loaded on first use.
+ * <p>
+ * With the change stream enabled, loading waits for its initial resync, which
+ * clears the cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheWarmUp {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED, DISABLED;
+
+        /**
+         * Whether the warm-up is over (or never runs).
+         */
+        public boolean isDone() {
+            return this != PENDING && this != RUNNING;
+        }
+    }
+
+    private final AuthServiceClient authServiceClient;
+    private final UserChangeSubscriber userChangeSubscriber;
+    private final UserCache userCache;
+    private final AuthServiceGuard authServiceGuard;
+    private final UserCacheWarmUpProperties properties;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile Status status;
+    private volatile int total;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.enabled()) {
+            Thread.ofVirtual().name("user-cache-warm-up").start(this::warmUp);
+        }
+    }
+
+    public Status status() {
+        Status current = status;
+        if (current != null) {
+            return current;
+        }
+        return properties.enabled() ? Status.PENDING : Status.DISABLED;
+    }
+
+    /**
+     * Number of recently active users to load.
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Number of users added to the cache so far.
+     */
+    public int loaded() {
+        return loaded.get();
+    }
+
+    /**
+     * Number of users whose batch lookup failed.
+     */
+    public int failed() {
+        return failed.get();
+    }
+
+    public Duration elapsed() {
+        if (startNanos == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos);
+    }
+
+    /**
+     * Runs the warm-up on the calling thread.
+     */
+    void warmUp() {
+        startNanos = System.nanoTime();
+        long deadline = startNanos + properties.timeout().toNanos();
+        status = Status.RUNNING;
+        log.info("Warming up cache {} with up to {} recently active users", UserCache.USERS_CACHE,
+                properties.maxUsers());
+        try {
+            if (!userChangeSubscriber.awaitSynced(remaining(deadline))) {
+                log.warn("Change stream not connected within {}, skipping cache warm-up", properties.timeout());
+                finish(Status.TIMED_OUT);
+                return;
+            }
+
+            List<String> dns = authServiceGuard.call(() -> authServiceClient.recentUsers(properties.maxUsers()));
+            total = dns.size();
+            ExecutorService executor = Executors.newFixedThreadPool(properties.parallelism(),
+                    Thread.ofVirtual().name("user-cache-warm-up-", 0).factory());
+            try {
+                for (int i = 0; i < dns.size(); i += properties.batchSize()) {
+                    List<String> batch = dns.subList(i, Math.min(i + properties.batchSize(), dns.size()));
+                    executor.execute(() -> loadBatch(batch));
+                }
+                executor.shutdown();
+                finish(executor.awaitTermination(remaining(deadline).toNanos(), TimeUnit.NANOSECONDS)
+                        ? Status.COMPLETED
+                        : Status.TIMED_OUT);
+            } finally {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(Status.FAILED);
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed, users are loaded on first use: {}", e.getMessage());
+            finish(Status.FAILED);
+        }
+    }
+
+    private void loadBatch(List<String> batch) {
+        List<String> missing = batch.stream()
+                .map(DnUtil::normalize)
+                .filter(dn -> dn != null && userCache.get(dn) == null)
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, UserInfo> users = authServiceGuard.call(() -> authServiceClient.lookupUsers(missing));
+            users.forEach((dn, user) -> {
+                if (userCache.putIfAbsent(dn, user)) {
+                    loaded.incrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            failed.addAndGet(missing.size());
+            log.warn("Cache warm-up batch of {} users failed: {}", missing.size(), e.getMessage());
+        }
+    }
+
+    private void finish(Status outcome) {
+        endNanos = System.nanoTime();
+        status = outcome;
+        log.info("Cache warm-up {}: {} of {} users loaded in {} ms", outcome.name().toLowerCase(), loaded.get(),
+                total, elapsed().toMillis());
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+}
@@ -0,0 +1,37 @@
+package org.acme.security.core.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reports {@link UserCacheWarmUp} progress as the {@code userCacheWarmUp}
+ * health component: {@code OUT_OF_SERVICE} while the warm-up is pending or
+ * running, {@code UP} once it is over (whatever its outcome) or disabled.
+ * Included in the readiness group by the applications, so instances only
+ * receive traffic with a warm cache.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+@RequiredArgsConstructor
+public class UserCacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final UserCacheWarmUp userCacheWarmUp;
+
+    @Override
+    public Health health() {
+        UserCacheWarmUp.Status status = userCacheWarmUp.status();
+        Health.Builder health = status.isDone() ? Health.up() : Health.outOfService();
+        health.withDetail("status", status.name().toLowerCase());
+        if (status != UserCacheWarmUp.Status.DISABLED) {
+            health.withDetail("loaded", userCacheWarmUp.loaded())
+                    .withDetail("total", userCacheWarmUp.total())
+                    .withDetail("failed", userCacheWarmUp.failed())
+                    .withDetail("elapsedMs", userCacheWarmUp.elapsed().toMillis());
+        }
+        return health.build();
+    }
+}
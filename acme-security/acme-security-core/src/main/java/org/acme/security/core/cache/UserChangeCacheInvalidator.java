@@ -0,0 +1,48 @@
+package org.acme.security.core.cache;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.client.UserChangeListener;
+import org.acme.auth.client.UserChangeSubscriber;
+import org.acme.auth.utils.DnUtil;
+
+/**
+ * Applies auth service change events to the {@link UserCache}: a changed user
+ * is evicted (from the users and not-found caches) under its normalized DN,
+ * and a resync clears both caches. {@link PrincipalCache} entries built from
+ * an evicted user stop matching and are rebuilt on the next request.
+ * <p>
+ * Active only with {@code auth.service.changes.enabled=true}; with the change
+ * stream in place, the users cache TTLs can be raised considerably.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserChangeCacheInvalidator implements UserChangeListener {
+
+    private final UserChangeSubscriber userChangeSubscriber;
+    private final UserCache userCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        userChangeSubscriber.start(this);
+    }
+
+    @Override
+    public void userChanged(String subjectDn) {
+        String normalizedDn = DnUtil.normalize(subjectDn);
+        log.debug("Evicting changed user: cache={}, key={}", UserCache.USERS_CACHE, normalizedDn);
+        userCache.evict(normalizedDn);
+    }
+
+    @Override
+    public void resync() {
+        log.debug("Clearing cache {} after change stream (re)connect", UserCache.USERS_CACHE);
+        userCache.clear();
+    }
+}
@@ -0,0 +1,173 @@
+package org.acme.security.core.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.security.core.config.properties.AuthServiceTransportProperties;
+import org.acme.security.core.ssl.ChainOnlyX509TrustManager;
+import org.acme.security.core.ssl.ReloadableSslMaterial;
+
+/**
+ * HTTP transport for {@code AuthServiceClient} (see
+ * {@link AuthServiceTransportProperties}), over TLS when {@link SslConfig}
+ * provides an {@link SSLContext}.
+ * <p>
+ * By default a pooled Apache HttpClient: bounded pool size per replica and in
+ * total, keep-alive capped at {@code auth.service.transport.keep-alive}, and
+ * idle connections evicted in the background. Pool usage is published as the
+ * standard {@code httpcomponents.httpclient.pool.*} meters with tag
+ * {@code httpclient=auth-service} (leased, available and pending connections).
+ * When the SSL stores are reloaded, idle connections are closed and the others
+ * are retired after {@code auth.service.transport.time-to-live}, so all
+ * connections move to the new certificate without failing in-flight calls.
+ * <p>
+ * With {@code auth.service.transport.http2=true}, the JDK {@link HttpClient}
+ * negotiates HTTP/2 and multiplexes all lookups to a replica over a single
+ * connection, so pod restarts cost one handshake per replica rather than one
+ * per pooled connection. Host names are not verified on either transport (the
+ * JDK client gets its own {@link SSLContext} with a
+ * {@link ChainOnlyX509TrustManager}); the truststore still validates the chain.
+ * After an SSL store reload the multiplexed connection keeps its certificate
+ * until it is closed (e.g. by the server when idle).
+ * <p>
+ * Both request factories share the one client: the {@link Primary} one for
+ * lookups and a second one without read timeout for the long-lived change
+ * stream.
+ */
+@Slf4j
+@Configuration
+public class AuthServiceTransportConfig {
+
+    static final String POOL_NAME = "auth-service";
+
+    /**
+     * Request factory for lookups: the shared transport with
+     * {@code auth.service.read-timeout}.
+     */
+    @Bean
+    @Primary
+    public ClientHttpRequestFactory authServiceClientHttpRequestFactory(
+            @Value("${auth.service.read-timeout:3s}") Duration readTimeout,
+            @Qualifier("authServiceHttpClient") ObjectProvider<CloseableHttpClient> pooledClient,
+            @Qualifier("authServiceJdkHttpClient") ObjectProvider<HttpClient> jdkClient) {
+        return requestFactory(pooledClient.getIfAvailable(), jdkClient.getIfAvailable(), readTimeout);
+    }
+
+    /**
+     * Request factory for the change stream: the same transport without a read
+     * timeout, since the stream is idle between heartbeats.
+     */
+    @Bean
+    public ClientHttpRequestFactory authServiceStreamingClientHttpRequestFactory(
+            @Qualifier("authServiceHttpClient") ObjectProvider<CloseableHttpClient> pooledClient,
+            @Qualifier("authServiceJdkHttpClient") ObjectProvider<HttpClient> jdkClient) {
+        return requestFactory(pooledClient.getIfAvailable(), jdkClient.getIfAvailable(), null);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "auth.service.transport.http2", havingValue = "true")
+    public HttpClient authServiceJdkHttpClient(@Value("${auth.service.connect-timeout:2s}") Duration connectTimeout,
+            ObjectProvider<ReloadableSslMaterial> sslMaterial) throws Exception {
+        log.info("Auth service transport: JDK HttpClient, HTTP/2");
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout);
+        ReloadableSslMaterial material = sslMaterial.getIfAvailable();
+        if (material != null) {
+            // Same trade-off as the NoopHostnameVerifier below, which the JDK client
+            // cannot be given: its host name check is skipped by the trust manager
+            builder.sslContext(SslConfig.sslContext(material, new ChainOnlyX509TrustManager(material.trustManager())));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "auth.service.transport.http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient authServiceHttpClient(AuthServiceTransportProperties transport,
+            @Value("${auth.service.connect-timeout:2s}") Duration connectTimeout,
+            @Qualifier("authServiceSslContext") ObjectProvider<SSLContext> sslContext,
+            ObjectProvider<ReloadableSslMaterial> sslMaterial, ObjectProvider<MeterRegistry> meterRegistry) {
+        log.info("Auth service transport: Apache HttpClient, max {} connections ({} per replica)",
+                transport.maxConnections(), transport.maxConnectionsPerRoute());
+        PoolingHttpClientConnectionManagerBuilder connectionManagerBuilder = PoolingHttpClientConnectionManagerBuilder
+                .create()
+                .setMaxConnTotal(transport.maxConnections())
+                .setMaxConnPerRoute(transport.maxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setTimeToLive(TimeValue.of(transport.timeToLive()))
+                        .build());
+        // Service hostnames (e.g., auth-service-ldap) don't match the certificate's
+        // subject alternative names (e.g., localhost). The truststore still validates
+        // the certificate chain, so this is safe.
+        sslContext.ifAvailable(context -> connectionManagerBuilder.setTlsSocketStrategy(ClientTlsStrategyBuilder
+                .create()
+                .setSslContext(context)
+                .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                .buildClassic()));
+        PoolingHttpClientConnectionManager connectionManager = connectionManagerBuilder.build();
+        meterRegistry.ifAvailable(registry -> new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager,
+                POOL_NAME).bindTo(registry));
+        // Idle connections still carry the old certificate; leased ones are retired
+        // when they are released after their time-to-live
+        sslMaterial.ifAvailable(material -> material.onReload(
+                () -> connectionManager.closeIdle(TimeValue.ZERO_MILLISECONDS)));
+
+        TimeValue keepAlive = TimeValue.of(transport.keepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue requested = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return requested.compareTo(keepAlive) < 0 ? requested : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(transport.evictIdleAfter()))
+                .build();
+    }
+
+    private static ClientHttpRequestFactory requestFactory(CloseableHttpClient pooledClient, HttpClient jdkClient,
+            Duration readTimeout) {
+        if (jdkClient != null) {
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(jdkClient);
+            if (readTimeout != null) {
+                requestFactory.setReadTimeout(readTimeout);
+            }
+            return requestFactory;
+        }
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                pooledClient);
+        if (readTimeout != null) {
+            requestFactory.setReadTimeout(readTimeout);
+        }
+        return requestFactory;
+    }
+}
@@ -1,34 +1,33 @@
 package org.acme.security.core.config;
 
-import java.io.InputStream;
-import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Enumeration;
 
-import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
 
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.io.HttpClientConnectionManager;
-import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.acme.security.core.ssl.ReloadableSslMaterial;
+
 /**
  * SSL configuration for auth service client communication.
  * <p>
  * Configures SSL/TLS for RestClient to communicate with the auth service over
- * HTTPS. Loads keystore and truststore from configuration properties.
+ * HTTPS. Loads keystore and truststore from configuration properties into the
+ * {@link SSLContext} used by {@link AuthServiceTransportConfig}, and reloads
+ * them when the files change (see {@link ReloadableSslMaterial}), so rotated
+ * certificates are picked up without a restart.
  * <p>
  * This configuration is only active when {@code auth.service.ssl.enabled=true}
  * is set.
@@ -38,87 +37,64 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(name = "auth.service.ssl.enabled", havingValue = "true")
 public class SslConfig {
 
+    /**
+     * The keystore and truststore, reloaded when the files change (every
+     * {@code auth.service.ssl.reload-interval}, default 30s; {@code 0} disables).
+     */
     @Bean
-    public ClientHttpRequestFactory sslClientHttpRequestFactory(
+    public ReloadableSslMaterial authServiceSslMaterial(
             @Value("${auth.service.ssl.truststore.path}") Resource truststoreResource,
             @Value("${auth.service.ssl.truststore.password}") String truststorePassword,
             @Value("${auth.service.ssl.truststore.type:JKS}") String truststoreType,
             @Value("${auth.service.ssl.keystore.path:#{null}}") Resource keystoreResource,
             @Value("${auth.service.ssl.keystore.password:#{null}}") String keystorePassword,
-            @Value("${auth.service.ssl.keystore.type:JKS}") String keystoreType) throws Exception {
+            @Value("${auth.service.ssl.keystore.type:JKS}") String keystoreType,
+            @Value("${auth.service.ssl.reload-interval:30s}") Duration reloadInterval) throws Exception {
 
         log.info("Configuring SSL for auth service client");
 
-        SSLContext sslContext = createSslContext(truststoreResource, truststorePassword, truststoreType,
-                keystoreResource, keystorePassword, keystoreType);
-
-        // Note: SSLConnectionSocketFactory and setSSLSocketFactory are deprecated in
-        // HttpClient 5, but they are the only available APIs for configuring SSL. The
-        // SSLContext creation uses standard Java APIs (non-deprecated), but the
-        // HttpClient integration requires these deprecated methods until HttpClient 5
-        // provides a replacement API.
-        // Use NoopHostnameVerifier to allow service hostnames (e.g., auth-service-ldap)
-        // that don't match the certificate's subject alternative names (e.g.,
-        // localhost).
-        // The truststore still validates the certificate chain, so this is safe.
-        @SuppressWarnings("deprecation")
-        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContext,
-                NoopHostnameVerifier.INSTANCE);
-
-        @SuppressWarnings("deprecation")
-        HttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setSSLSocketFactory(sslSocketFactory)
-                .build();
-
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setConnectionManager(connectionManager)
-                .build();
-
-        return new HttpComponentsClientHttpRequestFactory(httpClient);
+        ReloadableSslMaterial material = new ReloadableSslMaterial(keystoreResource, keystorePassword, keystoreType,
+                truststoreResource, truststorePassword, truststoreType);
+        material.watch(reloadInterval);
+        return material;
     }
 
-    private SSLContext createSslContext(Resource truststoreResource, String truststorePassword, String truststoreType,
-            Resource keystoreResource, String keystorePassword, String keystoreType) throws Exception {
+    /**
+     * The {@link SSLContext} the auth service transport connects with (see
+     * {@link AuthServiceTransportConfig}). One context for the lifetime of the
+     * application, so its client session cache lets reconnects resume TLS
+     * sessions instead of doing a full handshake; the cache is flushed when the
+     * stores are reloaded, so new connections present the new certificate.
+     */
+    @Bean
+    public SSLContext authServiceSslContext(ReloadableSslMaterial authServiceSslMaterial) throws Exception {
+        return sslContext(authServiceSslMaterial, authServiceSslMaterial.trustManager());
+    }
 
-        // Use standard Java SSLContext initialization (non-deprecated)
+    /**
+     * Creates an {@link SSLContext} presenting the material's client certificate
+     * and verifying peers with {@code trustManager}, whose cached sessions are
+     * invalidated when the stores are reloaded.
+     */
+    public static SSLContext sslContext(ReloadableSslMaterial material, TrustManager trustManager) throws Exception {
         SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(new KeyManager[] { material.keyManager() }, new TrustManager[] { trustManager },
+                new SecureRandom());
+        material.onReload(() -> invalidateSessions(sslContext.getClientSessionContext()));
+        return sslContext;
+    }
 
-        // Initialize KeyManagerFactory (for client certificates)
-        KeyManagerFactory keyManagerFactory = null;
-        if (keystoreResource != null && keystoreResource.exists() && keystorePassword != null) {
-            log.debug("Loading keystore from: {}", keystoreResource);
-            KeyStore keystore = KeyStore.getInstance(keystoreType);
-            try (InputStream is = keystoreResource.getInputStream()) {
-                keystore.load(is, keystorePassword.toCharArray());
-            }
-            keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            keyManagerFactory.init(keystore, keystorePassword.toCharArray());
-            log.debug("Keystore loaded successfully");
-        } else if (keystoreResource != null) {
-            log.debug("Keystore not configured, skipping client certificate authentication");
-        }
-
-        // Initialize TrustManagerFactory (for server certificate verification)
-        TrustManagerFactory trustManagerFactory = null;
-        if (truststoreResource != null && truststoreResource.exists()) {
-            log.debug("Loading truststore from: {}", truststoreResource);
-            KeyStore truststore = KeyStore.getInstance(truststoreType);
-            try (InputStream is = truststoreResource.getInputStream()) {
-                truststore.load(is, truststorePassword.toCharArray());
+    /**
+     * Invalidates all cached TLS sessions so they are not resumed with the
+     * previous certificate.
+     */
+    public static void invalidateSessions(SSLSessionContext sessionContext) {
+        Enumeration<byte[]> ids = sessionContext.getIds();
+        while (ids.hasMoreElements()) {
+            SSLSession session = sessionContext.getSession(ids.nextElement());
+            if (session != null) {
+                session.invalidate();
             }
-            trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-            trustManagerFactory.init(truststore);
-            log.debug("Truststore loaded successfully");
-        } else {
-            log.warn("Truststore resource not found or not specified, using default truststore");
         }
-
-        // Initialize SSLContext with KeyManagers and TrustManagers
-        sslContext.init(
-                keyManagerFactory != null ? keyManagerFactory.getKeyManagers() : null,
-                trustManagerFactory != null ? trustManagerFactory.getTrustManagers() : null,
-                new SecureRandom());
-
-        return sslContext;
     }
 }
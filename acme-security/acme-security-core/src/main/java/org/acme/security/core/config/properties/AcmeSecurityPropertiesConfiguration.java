@@ -4,6 +4,8 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties({ HeaderFilterProperties.class, HeadersProperties.class })
+@EnableConfigurationProperties({ AuthServiceResilienceProperties.class, AuthServiceTransportProperties.class,
+        HeaderFilterProperties.class, HeadersProperties.class, UserCacheProperties.class,
+        UserCacheWarmUpProperties.class })
 public class AcmeSecurityPropertiesConfiguration {
 }
@@ -0,0 +1,47 @@
+package org.acme.security.core.config.properties;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bound from {@code acme.security.auth-service.resilience.*}. Configures the
+ * bulkhead and circuit breaker that {@code AuthServiceGuard} puts around auth
+ * service user lookups. Connect and read timeouts are configured on the client
+ * itself ({@code auth.service.connect-timeout}, {@code auth.service.read-timeout}).
+ */
+@ConfigurationProperties(prefix = "acme.security.auth-service.resilience")
+public record AuthServiceResilienceProperties(
+        /**
+         * Enables the bulkhead and circuit breaker; when disabled, calls go straight
+         * to the auth service.
+         */
+        @DefaultValue("false") boolean enabled,
+        /**
+         * Maximum number of concurrent auth service calls; further calls are rejected
+         * immediately instead of queueing request threads.
+         */
+        @DefaultValue("100") int maxConcurrentCalls,
+        /**
+         * Failure rate (percent of the sliding window) at which the circuit opens.
+         */
+        @DefaultValue("50") int failureRateThreshold,
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        @DefaultValue("20") int slidingWindowSize,
+        /**
+         * Minimum number of calls in the window before the failure rate is evaluated.
+         */
+        @DefaultValue("10") int minimumCalls,
+        /**
+         * How long the circuit stays open before trial calls are let through.
+         */
+        @DefaultValue("10s") Duration openDuration,
+        /**
+         * Number of trial calls in the half-open state; all must succeed to close
+         * the circuit, any failure opens it again.
+         */
+        @DefaultValue("3") int halfOpenCalls) {
+}
@@ -0,0 +1,44 @@
+package org.acme.security.core.config.properties;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bound from {@code auth.service.transport.*}. Configures the HTTP transport
+ * behind {@code AuthServiceClient} (see {@code AuthServiceTransportConfig}).
+ * Timeouts stay under {@code auth.service.connect-timeout} and
+ * {@code auth.service.read-timeout}.
+ */
+@ConfigurationProperties(prefix = "auth.service.transport")
+public record AuthServiceTransportProperties(
+        /**
+         * Use the JDK {@code HttpClient} with HTTP/2, multiplexing lookups over one
+         * connection per auth service replica, instead of the pooled Apache
+         * HttpClient. The pool settings below do not apply in this mode.
+         */
+        @DefaultValue("false") boolean http2,
+        /**
+         * Maximum number of pooled connections across all replicas.
+         */
+        @DefaultValue("200") int maxConnections,
+        /**
+         * Maximum number of pooled connections per replica.
+         */
+        @DefaultValue("50") int maxConnectionsPerRoute,
+        /**
+         * How long an idle connection is kept for reuse, unless the server's
+         * {@code Keep-Alive} header asks for less.
+         */
+        @DefaultValue("30s") Duration keepAlive,
+        /**
+         * Idle connections are closed by a background thread after this long.
+         */
+        @DefaultValue("60s") Duration evictIdleAfter,
+        /**
+         * Pooled connections are not reused after this long, so busy connections
+         * also pick up reloaded SSL stores (see {@code ReloadableSslMaterial}).
+         */
+        @DefaultValue("5m") Duration timeToLive) {
+}
@@ -0,0 +1,47 @@
+package org.acme.security.core.config.properties;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bound from {@code acme.security.user-cache.*}. Tunes how entries of the
+ * {@code users} cache are served; size and eviction are still configured by
+ * {@code spring.cache.caffeine.spec}. The negative ("user not found") cache is
+ * sized here since it is separate from the Spring cache.
+ */
+@ConfigurationProperties(prefix = "acme.security.user-cache")
+public record UserCacheProperties(
+        /**
+         * Serve entries older than {@link #softTtl()} immediately and refresh them in
+         * the background (stale-while-revalidate).
+         */
+        @DefaultValue("false") boolean refreshAhead,
+        /**
+         * Age after which an entry is refreshed in the background on its next access.
+         */
+        @DefaultValue("5m") Duration softTtl,
+        /**
+         * Maximum age of a served entry, including while background refreshes fail;
+         * older entries are reloaded inline and only used as the last known user while
+         * the auth service is unavailable. The Caffeine {@code expireAfterWrite} should
+         * be well above this, or there is no last known user to fall back to.
+         */
+        @DefaultValue("30m") Duration hardTtl,
+        /**
+         * How long a "user not found" result is remembered, so unknown DNs don't
+         * reach the auth service on every request. {@code 0} disables negative
+         * caching.
+         */
+        @DefaultValue("1m") Duration notFoundTtl,
+        /**
+         * Maximum number of remembered "user not found" DNs.
+         */
+        @DefaultValue("10000") long notFoundMaxSize,
+        /**
+         * Maximum number of cached authenticated principals (per raw subject and
+         * issuer header pair). {@code 0} disables the principal cache.
+         */
+        @DefaultValue("1000") long principalMaxSize) {
+}
@@ -0,0 +1,38 @@
+package org.acme.security.core.config.properties;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bound from {@code acme.security.user-cache.warm-up.*}. Configures the
+ * preloading of the {@code users} cache at startup (see
+ * {@code UserCacheWarmUp}).
+ */
+@ConfigurationProperties(prefix = "acme.security.user-cache.warm-up")
+public record UserCacheWarmUpProperties(
+        /**
+         * Preload the users the auth service reports as recently active before the
+         * readiness probe reports UP.
+         */
+        @DefaultValue("false") boolean enabled,
+        /**
+         * Maximum number of users to preload; should not exceed the Caffeine
+         * {@code maximumSize}.
+         */
+        @DefaultValue("1000") int maxUsers,
+        /**
+         * DNs per batch lookup (at most 500, the auth service limit).
+         */
+        @DefaultValue("100") int batchSize,
+        /**
+         * Maximum number of batch lookups in flight.
+         */
+        @DefaultValue("4") int parallelism,
+        /**
+         * Time budget for the whole warm-up; users not loaded by then are loaded on
+         * first use as usual.
+         */
+        @DefaultValue("30s") Duration timeout) {
+}
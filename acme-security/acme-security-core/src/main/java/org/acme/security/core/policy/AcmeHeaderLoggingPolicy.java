@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.springframework.stereotype.Component;
 
@@ -14,21 +15,41 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.acme.security.core.config.properties.HeaderFilterProperties;
 import org.acme.security.core.util.HeaderFilterConfigParser;
 import org.acme.security.core.util.HeaderValuePatternMatcher;
+import org.acme.security.core.util.HeaderValuePatternSet;
 
 /**
  * Decides whether DEBUG request/response header logging should run, based on
  * {@link HeaderFilterProperties#ignoreHeaders()} only (no path-based skipping).
+ * <p>
+ * Requests are evaluated through a {@link HeaderView}, which only reads the
+ * headers that have ignore rules, straight from the request.
  */
 @Component
 public class AcmeHeaderLoggingPolicy {
 
     private final boolean disabled;
     private final Map<String, List<HeaderValuePatternMatcher>> ignoredHeaderMatchers;
+    private final IgnoreRule[] ignoreRules;
 
     public AcmeHeaderLoggingPolicy(HeaderFilterProperties properties, ObjectMapper objectMapper) {
+        Map<String, Set<String>> ignoredHeaders = HeaderFilterConfigParser.parseIgnoredHeaders(objectMapper,
+                properties.ignoreHeaders());
         this.disabled = properties.disabled();
-        this.ignoredHeaderMatchers = compileIgnoredHeaders(
-                HeaderFilterConfigParser.parseIgnoredHeaders(objectMapper, properties.ignoreHeaders()));
+        this.ignoredHeaderMatchers = compileIgnoredHeaders(ignoredHeaders);
+        this.ignoreRules = ignoredHeaders.entrySet().stream()
+                .map(entry -> new IgnoreRule(entry.getKey(), HeaderValuePatternSet.compile(entry.getValue())))
+                .toArray(IgnoreRule[]::new);
+    }
+
+    /**
+     * Whether header logging is on at all, before looking at the request.
+     */
+    public boolean isEnabled(boolean debugEnabled) {
+        return !disabled && debugEnabled;
+    }
+
+    public boolean shouldLog(boolean debugEnabled, HeaderView headers) {
+        return isEnabled(debugEnabled) && !matchesIgnoreRules(headers);
     }
 
     /**
@@ -36,10 +57,7 @@ public class AcmeHeaderLoggingPolicy {
      *                {@link #normalizeHeaderMap(Map)})
      */
     public boolean shouldLog(boolean debugEnabled, Map<String, List<String>> headers) {
-        if (disabled || !debugEnabled) {
-            return false;
-        }
-        return !matchesIgnoreRules(headers);
+        return shouldLog(debugEnabled, HeaderView.of(headers));
     }
 
     /**
@@ -47,20 +65,21 @@ public class AcmeHeaderLoggingPolicy {
      * {@code acme.security.header-filter.ignore-headers} (e.g. kube probe
      * User-Agent). Independent of debug level.
      */
-    public boolean matchesIgnoreRules(Map<String, List<String>> headers) {
-        if (ignoredHeaderMatchers.isEmpty()) {
-            return false;
+    public boolean matchesIgnoreRules(HeaderView headers) {
+        for (IgnoreRule rule : ignoreRules) {
+            if (headers.anyValueMatches(rule.headerName(), rule)) {
+                return true;
+            }
         }
-        return ignoredHeaderMatchers.entrySet().stream()
-                .anyMatch(entry -> {
-                    List<String> values = headers.get(entry.getKey());
-                    if (values == null || values.isEmpty()) {
-                        return false;
-                    }
-                    return values.stream()
-                            .anyMatch(headerValue -> entry.getValue().stream()
-                                    .anyMatch(matcher -> matcher.matches(headerValue)));
-                });
+        return false;
+    }
+
+    /**
+     * @param headers header map with lowercase keys (see
+     *                {@link #normalizeHeaderMap(Map)})
+     */
+    public boolean matchesIgnoreRules(Map<String, List<String>> headers) {
+        return matchesIgnoreRules(HeaderView.of(headers));
     }
 
     public Map<String, List<HeaderValuePatternMatcher>> getIgnoredHeaderMatchers() {
@@ -95,4 +114,17 @@ public class AcmeHeaderLoggingPolicy {
 
         return Map.copyOf(compiledMatchers);
     }
+
+    /**
+     * The ignored values of one header, compiled into a single matcher, as the
+     * predicate passed to {@link HeaderView#anyValueMatches}; allocated once, not
+     * per request.
+     */
+    private record IgnoreRule(String headerName, HeaderValuePatternSet values) implements Predicate<String> {
+
+        @Override
+        public boolean test(String headerValue) {
+            return values.matches(headerValue);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.acme.security.core.policy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Read-only view of the request headers for {@link AcmeHeaderLoggingPolicy},
+ * backed directly by the framework's headers ({@code HttpHeaders},
+ * {@code HttpServletRequest}) instead of a copy.
+ * <p>
+ * The policy only asks for the headers that have ignore rules, so requests
+ * are evaluated without building a header map or lowercasing names.
+ */
+@FunctionalInterface
+public interface HeaderView {
+
+    /**
+     * Whether any value of the header satisfies the predicate.
+     *
+     * @param name      the lowercase header name; implementations match it
+     *                  case-insensitively
+     * @param predicate tested against each value until one matches
+     * @return false if the header is absent
+     */
+    boolean anyValueMatches(String name, Predicate<String> predicate);
+
+    /**
+     * View over a header map with lowercase keys (see
+     * {@link AcmeHeaderLoggingPolicy#normalizeHeaderMap(Map)}).
+     */
+    static HeaderView of(Map<String, List<String>> headers) {
+        return (name, predicate) -> {
+            List<String> values = headers.get(name);
+            if (values == null) {
+                return false;
+            }
+            for (String value : values) {
+                if (predicate.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
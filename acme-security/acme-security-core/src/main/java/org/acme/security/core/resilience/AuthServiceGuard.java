@@ -0,0 +1,295 @@
+package org.acme.security.core.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.auth.client.UserNotFoundException;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+
+/**
+ * Bulkhead and circuit breaker around auth service calls (see
+ * {@link AuthServiceResilienceProperties}).
+ * <ul>
+ * <li>Bulkhead: at most {@code max-concurrent-calls} calls are in flight; further
+ * calls fail immediately instead of tying up more request threads.</li>
+ * <li>Circuit breaker: opens when the failure rate over the last
+ * {@code sliding-window-size} calls reaches {@code failure-rate-threshold},
+ * rejects calls for {@code open-duration}, then lets {@code half-open-calls}
+ * trial calls through and closes if they all succeed.</li>
+ * </ul>
+ * Rejected calls fail with {@link AuthServiceUnavailableException}; callers
+ * can then serve the last known user via {@link #fallback}. A
+ * {@link UserNotFoundException} is an answer from the auth service and counts
+ * as a success.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>{@value #CALLS_METRIC} - calls by {@code result}
+ * ({@code success|failure|circuit-open|bulkhead-full})</li>
+ * <li>{@value #STATE_METRIC} - 1 for the current circuit {@code state}, 0
+ * otherwise</li>
+ * <li>{@value #TRANSITIONS_METRIC} - circuit state changes by {@code from} and
+ * {@code to}</li>
+ * <li>{@value #IN_FLIGHT_METRIC} - calls currently holding a bulkhead
+ * permit</li>
+ * <li>{@value #FALLBACK_METRIC} - rejected lookups answered with the last known
+ * user</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AuthServiceGuard {
+
+    public static final String CALLS_METRIC = "acme.security.auth.service.calls";
+    public static final String STATE_METRIC = "acme.security.auth.service.circuit.state";
+    public static final String TRANSITIONS_METRIC = "acme.security.auth.service.circuit.transitions";
+    public static final String IN_FLIGHT_METRIC = "acme.security.auth.service.bulkhead.in.flight";
+    public static final String FALLBACK_METRIC = "acme.security.auth.service.fallback";
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final AuthServiceResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Semaphore bulkhead;
+    private final Counter success;
+    private final Counter failure;
+    private final Counter circuitOpen;
+    private final Counter bulkheadFull;
+    private final Counter fallbacks;
+
+    // Circuit breaker state, guarded by this
+    private final boolean[] window;
+    private int windowCalls;
+    private int windowFailures;
+    private int windowNext;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    @Autowired
+    public AuthServiceGuard(AuthServiceResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    AuthServiceGuard(AuthServiceResilienceProperties properties, MeterRegistry meterRegistry,
+            LongSupplier nanoTime) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        this.bulkhead = new Semaphore(properties.maxConcurrentCalls());
+        this.window = new boolean[properties.slidingWindowSize()];
+        this.success = callCounter("success");
+        this.failure = callCounter("failure");
+        this.circuitOpen = callCounter("circuit-open");
+        this.bulkheadFull = callCounter("bulkhead-full");
+        this.fallbacks = Counter.builder(FALLBACK_METRIC)
+                .description("Rejected user lookups answered with the last known user")
+                .register(meterRegistry);
+        for (State s : State.values()) {
+            Gauge.builder(STATE_METRIC, this, guard -> guard.state() == s ? 1 : 0)
+                    .description("Auth service circuit breaker state (1 = current)")
+                    .tag("state", stateTag(s))
+                    .register(meterRegistry);
+        }
+        Gauge.builder(IN_FLIGHT_METRIC, bulkhead,
+                b -> properties.maxConcurrentCalls() - b.availablePermits())
+                .description("Auth service calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a blocking auth service call through the bulkhead and circuit breaker.
+     *
+     * @throws AuthServiceUnavailableException if the call was not attempted
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+        acquire();
+        try {
+            T result = call.get();
+            onResult(null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            onResult(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #call(Supplier)}: the bulkhead permit is held
+     * until the returned future completes.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+        try {
+            acquire();
+        } catch (AuthServiceUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error e) {
+            onResult(e);
+            bulkhead.release();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            onResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            bulkhead.release();
+        });
+    }
+
+    /**
+     * Answers a rejected lookup with the last known user, if there is one.
+     *
+     * @param dn        the DN that was looked up
+     * @param rejected  the rejection from {@link #call} or {@link #callAsync}
+     * @param lastKnown the last user loaded for the DN, or null
+     * @return {@code lastKnown}
+     * @throws AuthServiceUnavailableException {@code rejected}, if there is no
+     *         last known user
+     */
+    public UserInfo fallback(String dn, AuthServiceUnavailableException rejected, UserInfo lastKnown) {
+        if (lastKnown == null) {
+            throw rejected;
+        }
+        fallbacks.increment();
+        log.warn("Auth service unavailable ({}), serving last known user: {}", rejected.getMessage(), dn);
+        return lastKnown;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void acquire() {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadFull.increment();
+            throw new AuthServiceUnavailableException("Auth service bulkhead full ("
+                    + properties.maxConcurrentCalls() + " concurrent calls)");
+        }
+        if (!tryAcquirePermission()) {
+            bulkhead.release();
+            circuitOpen.increment();
+            throw new AuthServiceUnavailableException("Auth service circuit breaker open");
+        }
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAtNanos < properties.openDuration().toNanos()) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+            halfOpenPermits = properties.halfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    private void onResult(Throwable error) {
+        boolean failed = error != null && !(error instanceof UserNotFoundException);
+        (failed ? failure : success).increment();
+        record(failed);
+    }
+
+    private synchronized void record(boolean failed) {
+        switch (state) {
+            case CLOSED -> {
+                if (windowCalls == window.length) {
+                    windowFailures -= window[windowNext] ? 1 : 0;
+                } else {
+                    windowCalls++;
+                }
+                window[windowNext] = failed;
+                windowFailures += failed ? 1 : 0;
+                windowNext = (windowNext + 1) % window.length;
+                if (windowCalls >= properties.minimumCalls()
+                        && windowFailures * 100 >= properties.failureRateThreshold() * windowCalls) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                if (failed) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses >= properties.halfOpenCalls()) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Result of a call started before the circuit opened
+            }
+        }
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        if (next == State.OPEN) {
+            openedAtNanos = nanoTime.getAsLong();
+            if (previous == State.HALF_OPEN) {
+                log.warn("Auth service circuit breaker OPEN (trial call failed); rejecting calls for {}",
+                        properties.openDuration());
+            } else {
+                log.warn("Auth service circuit breaker OPEN ({} of the last {} calls failed); rejecting calls for {}",
+                        windowFailures, windowCalls, properties.openDuration());
+            }
+        } else if (next == State.HALF_OPEN) {
+            log.info("Auth service circuit breaker HALF_OPEN; allowing {} trial calls", properties.halfOpenCalls());
+        } else {
+            log.info("Auth service circuit breaker CLOSED");
+        }
+        if (next != State.HALF_OPEN) {
+            windowCalls = 0;
+            windowFailures = 0;
+            windowNext = 0;
+        }
+        Counter.builder(TRANSITIONS_METRIC)
+                .description("Auth service circuit breaker state transitions")
+                .tag("from", stateTag(previous))
+                .tag("to", stateTag(next))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter callCounter(String result) {
+        return Counter.builder(CALLS_METRIC)
+                .description("Auth service calls through the bulkhead and circuit breaker")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String stateTag(State state) {
+        return state.name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,16 @@
+package org.acme.security.core.resilience;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Thrown by {@link AuthServiceGuard} when a call to the auth service is not
+ * attempted because the circuit is open or the bulkhead is full. A
+ * {@link BadCredentialsException} like every other auth service failure, so
+ * callers without a fallback reject the request as before.
+ */
+public class AuthServiceUnavailableException extends BadCredentialsException {
+
+    public AuthServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -15,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.acme.auth.client.UserInfo;
 import org.acme.auth.utils.DnUtil;
+import org.acme.security.core.cache.PrincipalCache;
 import org.acme.security.core.model.HeaderCertificatePrincipal;
 import org.acme.security.core.model.SecurityConstants;
 import org.acme.security.core.model.UserInformation;
@@ -26,6 +27,7 @@ import org.acme.security.core.util.UserInformationUtil;
 public class AuthenticationService {
 
     private final CachedUserLookupService cachedUserLookupService;
+    private final PrincipalCache principalCache;
 
     /**
      * Validates and normalizes a UserInformation object from the authentication
@@ -70,18 +72,50 @@ public class AuthenticationService {
      * Authenticates using subject and issuer from headers (see
      * {@link HeaderCertificatePrincipal}). When the auth service returns an issuer
      * for the user, it must match the request issuer (after DN normalization).
+     * <p>
+     * The result is cached per raw header pair in {@link PrincipalCache} for as
+     * long as the user stays unchanged in the users cache.
      */
     public Authentication createAuthenticatedAuthentication(HeaderCertificatePrincipal clientPrincipal) {
-        if (!StringUtils.hasText(clientPrincipal.subjectDn())) {
-            throw new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE);
+        PrincipalCache.Entry cached = principalCache.get(clientPrincipal.subjectDn(), clientPrincipal.issuerDn());
+        if (cached != null && cached.isBuiltFrom(cachedUserLookupService.getCachedUser(cached.normalizedDn()))) {
+            return cached.authentication();
         }
 
-        String normalizedDn = DnUtil.normalize(clientPrincipal.subjectDn());
-        if (normalizedDn == null) {
-            throw new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE);
-        }
+        String normalizedDn = normalizeSubjectDn(clientPrincipal.subjectDn());
 
         UserInfo userInfo = cachedUserLookupService.lookupUser(normalizedDn);
+
+        return createAndCacheAuthentication(clientPrincipal, normalizedDn, userInfo);
+    }
+
+    /**
+     * Like {@link #createAuthenticatedAuthentication(HeaderCertificatePrincipal, UserInfo)},
+     * and caches the result in {@link PrincipalCache}. {@code userInfo} must be
+     * the instance held by the users cache for {@code normalizedDn}.
+     *
+     * @param clientPrincipal the subject/issuer from the request headers
+     * @param normalizedDn    the normalized subject DN (users cache key)
+     * @param userInfo        the user returned by the users cache
+     */
+    public Authentication createAndCacheAuthentication(HeaderCertificatePrincipal clientPrincipal,
+            String normalizedDn, UserInfo userInfo) {
+        Authentication authentication = createAuthenticatedAuthentication(clientPrincipal, userInfo);
+        principalCache.put(clientPrincipal.subjectDn(), clientPrincipal.issuerDn(), normalizedDn, userInfo,
+                authentication);
+        return authentication;
+    }
+
+    /**
+     * Completes authentication for a user that has already been looked up (e.g.
+     * by the reactive lookup path): checks the request issuer and builds the
+     * authenticated token.
+     *
+     * @param clientPrincipal the subject/issuer from the request headers
+     * @param userInfo        the user returned by the auth service
+     */
+    public Authentication createAuthenticatedAuthentication(HeaderCertificatePrincipal clientPrincipal,
+            UserInfo userInfo) {
         assertIssuerMatchesRequest(clientPrincipal.issuerDn(), userInfo);
 
         return buildAuthenticatedToken(userInfo);
@@ -95,23 +129,42 @@ public class AuthenticationService {
      * @param dn the Distinguished Name from the request header
      */
     public Authentication createAuthenticatedAuthentication(String dn) {
+        // Normalize DN for consistent lookup and caching
+        String normalizedDn = normalizeSubjectDn(dn);
+
+        // Look up user from auth service by DN to get UserInfo with roles (cached)
+        UserInfo userInfo = cachedUserLookupService.lookupUser(normalizedDn);
+
+        return buildAuthenticatedToken(userInfo);
+    }
+
+    /**
+     * Normalizes a subject DN from the request into the form used as the
+     * {@code users} cache key and auth service lookup key.
+     *
+     * @param dn the subject DN from the request header
+     * @return the normalized DN
+     * @throws BadCredentialsException if the DN is missing or blank
+     */
+    public String normalizeSubjectDn(String dn) {
         if (!StringUtils.hasText(dn)) {
             throw new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE);
         }
 
-        // Normalize DN for consistent lookup and caching
         String normalizedDn = DnUtil.normalize(dn);
         if (normalizedDn == null) {
             throw new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE);
         }
-
-        // Look up user from auth service by DN to get UserInfo with roles (cached)
-        UserInfo userInfo = cachedUserLookupService.lookupUser(normalizedDn);
-
-        return buildAuthenticatedToken(userInfo);
+        return normalizedDn;
     }
 
-    private Authentication buildAuthenticatedToken(UserInfo userInfo) {
+    /**
+     * Builds the authenticated token from a looked-up user. Public so that the
+     * reactive lookup path can reuse the same role filtering.
+     *
+     * @param userInfo the user returned by the auth service
+     */
+    public Authentication buildAuthenticatedToken(UserInfo userInfo) {
         // Create UserInformation (derivative) from UserInfo
         UserInformation userInformation = UserInformationUtil.fromUserInfo(userInfo);
 
@@ -1,44 +1,70 @@
 package org.acme.security.core.service;
 
-import org.springframework.cache.annotation.Cacheable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.acme.auth.client.AuthServiceClient;
 import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.SingleFlight;
+import org.acme.security.core.cache.UserCache;
+import org.acme.security.core.cache.UserCacheEntry;
 import org.acme.security.core.model.SecurityConstants;
+import org.acme.security.core.resilience.AuthServiceGuard;
+import org.acme.security.core.resilience.AuthServiceUnavailableException;
 
 /**
  * Service for looking up users with caching.
  * <p>
  * Wraps the AuthServiceClient and provides caching to reduce calls to the auth
- * service. Cache is configured via Spring Boot's Caffeine auto-configuration in
- * application.yml.
+ * service. Entries live in the {@value UserCache#USERS_CACHE} cache (see
+ * {@link UserCache}), which is configured via Spring Boot's Caffeine
+ * auto-configuration in application.yml.
+ * <p>
+ * Concurrent misses for the same DN (e.g. when a hot entry expires) are
+ * coalesced via {@link SingleFlight}: only one auth service call is made and
+ * the other callers share its result.
+ * <p>
+ * With {@code acme.security.user-cache.refresh-ahead=true}, entries past the
+ * soft TTL are returned immediately and reloaded on a background virtual
+ * thread, so callers don't wait for the auth service on hot entries. Reloads
+ * are conditional ({@code If-None-Match}), so unchanged users cost a 304.
  * <p>
- * Cache misses are logged when the method executes (cache hits don't execute
- * the method due to {@code @Cacheable}).
+ * Auth service calls go through the {@link AuthServiceGuard} bulkhead and
+ * circuit breaker; while calls are rejected, a miss is answered with the last
+ * known user for the DN if the cache still holds one.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CachedUserLookupService {
 
     private final AuthServiceClient authServiceClient;
+    private final UserCache userCache;
+    private final AuthServiceGuard authServiceGuard;
+    private final Executor refreshExecutor;
+
+    public CachedUserLookupService(AuthServiceClient authServiceClient, UserCache userCache,
+            AuthServiceGuard authServiceGuard) {
+        this.authServiceClient = authServiceClient;
+        this.userCache = userCache;
+        this.authServiceGuard = authServiceGuard;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("user-cache-refresh-");
+        executor.setVirtualThreads(true);
+        this.refreshExecutor = executor;
+    }
 
     /**
      * Looks up a user by DN from the auth service. Results are cached to reduce
      * calls to the auth service.
      * <p>
-     * User lookups are cached using the "users" cache keyed by normalized DN. Cache
-     * configuration is defined in application.yml via Spring Boot's Caffeine
-     * auto-configuration.
-     * <p>
-     * This method only executes on cache misses, so logging here indicates a cache
-     * miss.
+     * User lookups are cached using the "users" cache keyed by normalized DN.
+     * Stale entries (refresh-ahead) are served while a background reload runs.
      * <p>
      * <strong>IMPORTANT:</strong> The DN parameter should already be normalized by
      * the caller (AuthenticationService) before calling this method. This ensures
@@ -48,13 +74,43 @@ public class CachedUserLookupService {
      * @return UserInfo with DN, name, and roles
      * @throws BadCredentialsException if user not found or service unavailable
      */
-    @Cacheable(value = "users", key = "#p0")
     public UserInfo lookupUser(String dn) {
-        log.debug("Cache MISS: cache=users, key={}", dn);
         if (!StringUtils.hasText(dn)) {
             throw new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE);
         }
+
+        UserInfo cached = getCachedUser(dn);
+        if (cached != null) {
+            return cached;
+        }
+
+        log.debug("Cache MISS: cache={}, key={}", UserCache.USERS_CACHE, dn);
         // DN should already be normalized by caller - pass as-is to auth service
-        return authServiceClient.lookupUser(dn);
+        try {
+            return userCache.load(dn, () -> authServiceGuard.call(() -> authServiceClient.lookupUser(dn)));
+        } catch (AuthServiceUnavailableException e) {
+            return authServiceGuard.fallback(dn, e, userCache.getLastKnown(dn));
+        }
+    }
+
+    /**
+     * Returns the user currently cached for a normalized DN without calling the
+     * auth service on a miss. Stale entries are refreshed in the background as in
+     * {@link #lookupUser(String)}.
+     *
+     * @param dn the normalized Distinguished Name
+     * @return the cached UserInfo, or null if not cached
+     */
+    public UserInfo getCachedUser(String dn) {
+        UserCacheEntry cached = userCache.get(dn);
+        if (cached == null) {
+            return null;
+        }
+        if (userCache.isRefreshDue(cached)) {
+            // Conditional request: a 304 keeps the cached UserInfo and restarts its TTL
+            userCache.refreshAsync(dn, () -> CompletableFuture.supplyAsync(() -> authServiceGuard.call(
+                    () -> authServiceClient.revalidateUser(dn, cached.userInfo())), refreshExecutor));
+        }
+        return cached.userInfo();
     }
 }
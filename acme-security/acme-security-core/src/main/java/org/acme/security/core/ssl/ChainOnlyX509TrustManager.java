@@ -0,0 +1,68 @@
+package org.acme.security.core.ssl;
+
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * {@link X509ExtendedTrustManager} that validates the peer's certificate chain
+ * against a delegate but skips the host name check, like Apache HttpClient's
+ * {@code NoopHostnameVerifier}.
+ * <p>
+ * Needed for the JDK {@code HttpClient}, which requests host name verification
+ * on every TLS connection and has no per-client way to turn it off (only the
+ * JVM-wide {@code jdk.internal.httpclient.disableHostnameVerification}).
+ * Being an {@link X509ExtendedTrustManager}, this class is trusted to perform
+ * that check itself, and leaves it out.
+ */
+public final class ChainOnlyX509TrustManager extends X509ExtendedTrustManager {
+
+    private final X509TrustManager delegate;
+
+    public ChainOnlyX509TrustManager(X509TrustManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+}
@@ -0,0 +1,196 @@
+package org.acme.security.core.ssl;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.springframework.core.io.Resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.acme.security.core.util.SslStoreUtil;
+
+/**
+ * Keystore and truststore material for mTLS to the auth service that is
+ * reloaded when the store files change, so certificates can be rotated without
+ * restarting (and without flushing the user caches of every pod at once).
+ * <p>
+ * SSL contexts are built once on top of {@link #keyManager()} and
+ * {@link #trustManager()}; a reload swaps their delegates, so handshakes
+ * started afterwards use the new material while established connections carry
+ * on until the transport retires them. Listeners registered with
+ * {@link #onReload(Runnable)} run after every successful reload, e.g. to
+ * invalidate TLS sessions or close idle pooled connections.
+ * <p>
+ * {@link #watch(Duration)} polls the store files and reloads when their content
+ * changes. Polling (rather than a {@code WatchService}) also catches Kubernetes
+ * secret updates, which swap a symlink instead of modifying the file. A store
+ * that fails to load (e.g. partially written) is retried on the next poll
+ * while the current material stays in use.
+ */
+@Slf4j
+public class ReloadableSslMaterial implements AutoCloseable {
+
+    private final Resource keystoreResource;
+    private final String keystorePassword;
+    private final String keystoreType;
+    private final Resource truststoreResource;
+    private final String truststorePassword;
+    private final String truststoreType;
+
+    private final ReloadableX509KeyManager keyManager = new ReloadableX509KeyManager();
+    private final ReloadableX509TrustManager trustManager = new ReloadableX509TrustManager();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    private byte[] keystoreDigest;
+    private byte[] truststoreDigest;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Loads the stores; fails if they cannot be loaded, as at startup there is no
+     * previous material to fall back to.
+     */
+    public ReloadableSslMaterial(Resource keystoreResource, String keystorePassword, String keystoreType,
+            Resource truststoreResource, String truststorePassword, String truststoreType) throws Exception {
+        this.keystoreResource = keystoreResource;
+        this.keystorePassword = keystorePassword;
+        this.keystoreType = keystoreType;
+        this.truststoreResource = truststoreResource;
+        this.truststorePassword = truststorePassword;
+        this.truststoreType = truststoreType;
+        this.keystoreDigest = digest(keystoreResource);
+        this.truststoreDigest = digest(truststoreResource);
+        load();
+    }
+
+    public ReloadableX509KeyManager keyManager() {
+        return keyManager;
+    }
+
+    public ReloadableX509TrustManager trustManager() {
+        return trustManager;
+    }
+
+    /**
+     * Registers a callback run after every successful reload.
+     */
+    public void onReload(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Polls the store files every {@code interval}; does nothing if the interval
+     * is zero or neither store is a file (e.g. a classpath resource).
+     */
+    public synchronized void watch(Duration interval) {
+        if (interval.isZero() || watcher != null) {
+            return;
+        }
+        if (!isFile(keystoreResource) && !isFile(truststoreResource)) {
+            log.debug("SSL stores are not files, not watching them for changes");
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ssl-store-watcher").daemon().factory());
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Watching SSL stores for changes every {}", interval);
+    }
+
+    /**
+     * Reloads both stores if the content of either changed.
+     *
+     * @return whether new material was loaded
+     */
+    public synchronized boolean reloadIfChanged() {
+        byte[] newKeystoreDigest;
+        byte[] newTruststoreDigest;
+        try {
+            newKeystoreDigest = digest(keystoreResource);
+            newTruststoreDigest = digest(truststoreResource);
+        } catch (Exception e) {
+            log.warn("Could not read SSL stores, keeping current material: {}", e.getMessage());
+            return false;
+        }
+        if (Arrays.equals(newKeystoreDigest, keystoreDigest) && Arrays.equals(newTruststoreDigest, truststoreDigest)) {
+            return false;
+        }
+
+        try {
+            load();
+        } catch (Exception e) {
+            log.error("Could not reload SSL stores, keeping current material (will retry)", e);
+            return false;
+        }
+        keystoreDigest = newKeystoreDigest;
+        truststoreDigest = newTruststoreDigest;
+        log.info("Reloaded SSL stores (keystore: {}, truststore: {})", keystoreResource, truststoreResource);
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("SSL reload listener failed", e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    private void load() throws Exception {
+        KeyManagerFactory keyManagerFactory = SslStoreUtil.loadKeyManagerFactory(keystoreResource, keystorePassword,
+                keystoreType);
+        TrustManagerFactory trustManagerFactory = SslStoreUtil.loadTrustManagerFactory(truststoreResource,
+                truststorePassword, truststoreType);
+        if (trustManagerFactory == null) {
+            trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init((KeyStore) null);
+        }
+
+        X509ExtendedKeyManager newKeyManager = keyManagerFactory == null ? null
+                : Arrays.stream(keyManagerFactory.getKeyManagers())
+                        .filter(X509ExtendedKeyManager.class::isInstance)
+                        .map(X509ExtendedKeyManager.class::cast)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("No X509 key manager for keystore"));
+        X509ExtendedTrustManager newTrustManager = Arrays.stream(trustManagerFactory.getTrustManagers())
+                .filter(X509ExtendedTrustManager.class::isInstance)
+                .map(X509ExtendedTrustManager.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No X509 trust manager for truststore"));
+
+        keyManager.setDelegate(newKeyManager);
+        trustManager.setDelegate(newTrustManager);
+    }
+
+    private static boolean isFile(Resource resource) {
+        return resource != null && resource.isFile();
+    }
+
+    private static byte[] digest(Resource resource) throws Exception {
+        if (resource == null || !resource.exists()) {
+            return null;
+        }
+        try (InputStream is = resource.getInputStream()) {
+            return MessageDigest.getInstance("SHA-256").digest(is.readAllBytes());
+        }
+    }
+}
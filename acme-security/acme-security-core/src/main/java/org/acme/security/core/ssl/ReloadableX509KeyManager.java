@@ -0,0 +1,72 @@
+package org.acme.security.core.ssl;
+
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+/**
+ * {@link X509ExtendedKeyManager} whose key material can be swapped at runtime
+ * (see {@link ReloadableSslMaterial}). Handshakes started after a swap present
+ * the new certificate; established connections are unaffected. Without a
+ * delegate no client certificate is presented.
+ */
+public final class ReloadableX509KeyManager extends X509ExtendedKeyManager {
+
+    private volatile X509ExtendedKeyManager delegate;
+
+    void setDelegate(X509ExtendedKeyManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.getClientAliases(keyType, issuers) : null;
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.chooseClientAlias(keyType, issuers, socket) : null;
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.chooseEngineClientAlias(keyType, issuers, engine) : null;
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.getServerAliases(keyType, issuers) : null;
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.chooseServerAlias(keyType, issuers, socket) : null;
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.chooseEngineServerAlias(keyType, issuers, engine) : null;
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.getCertificateChain(alias) : null;
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+        X509ExtendedKeyManager current = delegate;
+        return current != null ? current.getPrivateKey(alias) : null;
+    }
+}
@@ -0,0 +1,238 @@
+package org.acme.security.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * All ignored-value patterns of one header, compiled into a single matcher
+ * with the semantics of {@link HeaderValuePatternMatcher} ({@code *} matches
+ * any sequence of characters, everything else is literal): a value matches the
+ * set if it matches any pattern.
+ * <p>
+ * Patterns are split by shape at startup:
+ * <ul>
+ * <li>no {@code *}: hash set lookup</li>
+ * <li>{@code prefix*} / {@code *suffix}: {@code startsWith} / {@code endsWith}</li>
+ * <li>anything else: one glob automaton for all of them, simulated
+ * bit-parallel (one bit per NFA state, up to 64 states per {@code long}), so a
+ * value is scanned once, in linear time, whatever the number of patterns</li>
+ * </ul>
+ * Only a pattern with 64 or more literal characters, which does not fit in an
+ * automaton, is still matched with its {@link HeaderValuePatternMatcher} regex.
+ * Matching allocates nothing. Immutable and thread-safe.
+ */
+public final class HeaderValuePatternSet {
+
+    private static final char WILDCARD = '*';
+
+    private final boolean matchesAll;
+    private final Set<String> exactValues;
+    private final String[] prefixes;
+    private final String[] suffixes;
+    private final GlobAutomaton[] automata;
+    private final HeaderValuePatternMatcher[] longPatterns;
+
+    private HeaderValuePatternSet(boolean matchesAll, Set<String> exactValues, String[] prefixes,
+            String[] suffixes, GlobAutomaton[] automata, HeaderValuePatternMatcher[] longPatterns) {
+        this.matchesAll = matchesAll;
+        this.exactValues = exactValues;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.automata = automata;
+        this.longPatterns = longPatterns;
+    }
+
+    public static HeaderValuePatternSet compile(Collection<String> patterns) {
+        boolean matchesAll = false;
+        Set<String> exactValues = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        List<String> suffixes = new ArrayList<>();
+        List<String> globs = new ArrayList<>();
+        List<HeaderValuePatternMatcher> longPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            int first = pattern.indexOf(WILDCARD);
+            int last = pattern.lastIndexOf(WILDCARD);
+            if (first < 0) {
+                exactValues.add(pattern);
+            } else if (isAllWildcards(pattern)) {
+                matchesAll = true;
+            } else if (first == last && last == pattern.length() - 1) {
+                prefixes.add(pattern.substring(0, last));
+            } else if (first == last && first == 0) {
+                suffixes.add(pattern.substring(1));
+            } else if (GlobAutomaton.fits(pattern)) {
+                globs.add(pattern);
+            } else {
+                longPatterns.add(HeaderValuePatternMatcher.compile(pattern));
+            }
+        }
+        return new HeaderValuePatternSet(matchesAll, Set.copyOf(exactValues), prefixes.toArray(String[]::new),
+                suffixes.toArray(String[]::new), GlobAutomaton.compile(globs),
+                longPatterns.toArray(HeaderValuePatternMatcher[]::new));
+    }
+
+    public boolean matches(String headerValue) {
+        if (headerValue == null) {
+            return false;
+        }
+        if (matchesAll || exactValues.contains(headerValue)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (headerValue.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (String suffix : suffixes) {
+            if (headerValue.endsWith(suffix)) {
+                return true;
+            }
+        }
+        for (GlobAutomaton automaton : automata) {
+            if (automaton.matches(headerValue)) {
+                return true;
+            }
+        }
+        for (HeaderValuePatternMatcher longPattern : longPatterns) {
+            if (longPattern.matches(headerValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAllWildcards(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != WILDCARD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Thompson NFA of up to 64 glob patterns, one bit per state. A pattern with
+     * {@code n} literal characters has states {@code 0..n} (literals matched so
+     * far); a literal moves a state to the next one, a {@code *} is a self-loop on
+     * the state it follows. Patterns are laid out side by side, so one shift
+     * advances all of them, and a final state never carries into the next
+     * pattern since it has no literal.
+     */
+    private static final class GlobAutomaton {
+
+        private static final int MAX_STATES = Long.SIZE;
+        private static final int TABLE_SIZE = 256;
+
+        private final long initial;
+        private final long accepting;
+        private final long selfLoops;
+        /** States with an outgoing literal, per Latin-1 character. */
+        private final long[] literalMasks = new long[TABLE_SIZE];
+        /** Same, for the few characters above Latin-1, sorted for binary search. */
+        private char[] otherChars = new char[0];
+        private long[] otherMasks = new long[0];
+
+        private GlobAutomaton(List<String> patterns) {
+            long initialStates = 0;
+            long acceptingStates = 0;
+            long loopStates = 0;
+            int state = 0;
+            for (String pattern : patterns) {
+                initialStates |= 1L << state;
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (c == WILDCARD) {
+                        loopStates |= 1L << state;
+                    } else {
+                        addLiteral(c, 1L << state);
+                        state++;
+                    }
+                }
+                acceptingStates |= 1L << state;
+                state++;
+            }
+            this.initial = initialStates;
+            this.accepting = acceptingStates;
+            this.selfLoops = loopStates;
+        }
+
+        static boolean fits(String pattern) {
+            return stateCount(pattern) <= MAX_STATES;
+        }
+
+        /**
+         * Packs patterns (each of which {@link #fits}) into as few automata as fit
+         * in 64 states each.
+         */
+        static GlobAutomaton[] compile(List<String> patterns) {
+            List<GlobAutomaton> automata = new ArrayList<>();
+            List<String> group = new ArrayList<>();
+            int groupStates = 0;
+            for (String pattern : patterns) {
+                int states = stateCount(pattern);
+                if (groupStates + states > MAX_STATES) {
+                    automata.add(new GlobAutomaton(group));
+                    group = new ArrayList<>();
+                    groupStates = 0;
+                }
+                group.add(pattern);
+                groupStates += states;
+            }
+            if (!group.isEmpty()) {
+                automata.add(new GlobAutomaton(group));
+            }
+            return automata.toArray(GlobAutomaton[]::new);
+        }
+
+        boolean matches(String value) {
+            long states = initial;
+            for (int i = 0; i < value.length() && states != 0; i++) {
+                states = (states & selfLoops) | ((states & literalMask(value.charAt(i))) << 1);
+            }
+            return (states & accepting) != 0;
+        }
+
+        private long literalMask(char c) {
+            if (c < TABLE_SIZE) {
+                return literalMasks[c];
+            }
+            int index = Arrays.binarySearch(otherChars, c);
+            return index >= 0 ? otherMasks[index] : 0;
+        }
+
+        private void addLiteral(char c, long state) {
+            if (c < TABLE_SIZE) {
+                literalMasks[c] |= state;
+                return;
+            }
+            int index = Arrays.binarySearch(otherChars, c);
+            if (index < 0) {
+                index = -index - 1;
+                char[] chars = new char[otherChars.length + 1];
+                long[] masks = new long[otherMasks.length + 1];
+                System.arraycopy(otherChars, 0, chars, 0, index);
+                System.arraycopy(otherMasks, 0, masks, 0, index);
+                System.arraycopy(otherChars, index, chars, index + 1, otherChars.length - index);
+                System.arraycopy(otherMasks, index, masks, index + 1, otherMasks.length - index);
+                chars[index] = c;
+                otherChars = chars;
+                otherMasks = masks;
+            }
+            otherMasks[index] |= state;
+        }
+
+        private static int stateCount(String pattern) {
+            int literals = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) != WILDCARD) {
+                    literals++;
+                }
+            }
+            return literals + 1;
+        }
+    }
+}
@@ -23,17 +23,21 @@ public final class PathMatcherUtil {
      * prefix (without the {@code /**} suffix)</li>
      * <li>For exact patterns, checks if the path equals the pattern</li>
      * </ul>
+     * Uses the precompiled {@link PublicPathMatcher#PUBLIC_ENDPOINTS}, so it does
+     * not allocate.
      *
      * @param path the request path to check
      * @return true if the path matches a public endpoint pattern, false otherwise
      */
     public static boolean isPublicEndpoint(String path) {
-        return matchesAnyPattern(path, SecurityConstants.PUBLIC_ENDPOINTS);
+        return PublicPathMatcher.PUBLIC_ENDPOINTS.matches(path);
     }
 
     /**
      * Returns true if {@code path} matches any of the patterns (same rules as
-     * {@link #isPublicEndpoint(String)}).
+     * {@link #isPublicEndpoint(String)}). Compiles nothing, but allocates per
+     * call: for patterns checked on every request, use a
+     * {@link PublicPathMatcher}.
      */
     public static boolean matchesAnyPattern(String path, String[] patterns) {
         return Arrays.stream(patterns).anyMatch(pattern -> matchesPattern(pattern, path));
@@ -0,0 +1,79 @@
+package org.acme.security.core.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.security.core.model.SecurityConstants;
+
+/**
+ * Path patterns compiled once for matching on every request, with the rules of
+ * {@link PathMatcherUtil#matchesAnyPattern(String, String[])}: a pattern ending
+ * with {@code /**} matches its prefix and everything below it, any other
+ * pattern matches the path exactly.
+ * <p>
+ * Exact patterns are kept in a hash set and prefixes in an array, so a match
+ * is one hash lookup plus a {@code regionMatches} per prefix on the raw path,
+ * without regexes, substrings or concatenation. Immutable and thread-safe.
+ */
+public final class PublicPathMatcher {
+
+    /**
+     * Matcher for {@link SecurityConstants#PUBLIC_ENDPOINTS}.
+     */
+    public static final PublicPathMatcher PUBLIC_ENDPOINTS = compile(SecurityConstants.PUBLIC_ENDPOINTS);
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final Set<String> exactPaths;
+    private final String[] prefixes;
+
+    private PublicPathMatcher(Set<String> exactPaths, String[] prefixes) {
+        this.exactPaths = exactPaths;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Compiles patterns of the form {@code /exact/path} or {@code /prefix/**}.
+     *
+     * @throws IllegalArgumentException if a pattern uses wildcards elsewhere
+     */
+    public static PublicPathMatcher compile(String... patterns) {
+        Set<String> exactPaths = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String pattern : patterns) {
+            boolean anySuffix = pattern.endsWith(ANY_SUFFIX);
+            String path = anySuffix ? pattern.substring(0, pattern.length() - ANY_SUFFIX.length()) : pattern;
+            if (path.indexOf('*') >= 0 || path.indexOf('?') >= 0 || path.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("Unsupported path pattern: " + pattern);
+            }
+            if (anySuffix) {
+                prefixes.add(path);
+            } else {
+                exactPaths.add(path);
+            }
+        }
+        return new PublicPathMatcher(Set.copyOf(exactPaths), prefixes.toArray(String[]::new));
+    }
+
+    /**
+     * @param path the raw request path (e.g. {@code HttpServletRequest#getRequestURI()})
+     * @return true if the path matches one of the patterns
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (exactPaths.contains(path)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            int length = prefix.length();
+            if (path.startsWith(prefix) && (path.length() == length || path.charAt(length) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
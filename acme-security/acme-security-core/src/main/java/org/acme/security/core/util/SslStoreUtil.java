@@ -0,0 +1,73 @@
+package org.acme.security.core.util;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.springframework.core.io.Resource;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the keystore / truststore material used for mTLS to the auth service.
+ * Shared by the blocking ({@code SslConfig}) and reactive client transports so
+ * both stacks present the same client certificate and trust the same CAs.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SslStoreUtil {
+
+    /**
+     * Loads a {@link KeyManagerFactory} for client certificate authentication.
+     *
+     * @return the initialized factory, or null if no keystore is configured
+     */
+    public static KeyManagerFactory loadKeyManagerFactory(Resource keystoreResource, String keystorePassword,
+            String keystoreType) throws Exception {
+        if (keystoreResource == null || !keystoreResource.exists() || keystorePassword == null) {
+            if (keystoreResource != null) {
+                log.debug("Keystore not configured, skipping client certificate authentication");
+            }
+            return null;
+        }
+
+        log.debug("Loading keystore from: {}", keystoreResource);
+        KeyStore keystore = KeyStore.getInstance(keystoreType);
+        try (InputStream is = keystoreResource.getInputStream()) {
+            keystore.load(is, keystorePassword.toCharArray());
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keystore, keystorePassword.toCharArray());
+        log.debug("Keystore loaded successfully");
+        return keyManagerFactory;
+    }
+
+    /**
+     * Loads a {@link TrustManagerFactory} for server certificate verification.
+     *
+     * @return the initialized factory, or null to fall back to the default
+     *         truststore
+     */
+    public static TrustManagerFactory loadTrustManagerFactory(Resource truststoreResource, String truststorePassword,
+            String truststoreType) throws Exception {
+        if (truststoreResource == null || !truststoreResource.exists()) {
+            log.warn("Truststore resource not found or not specified, using default truststore");
+            return null;
+        }
+
+        log.debug("Loading truststore from: {}", truststoreResource);
+        KeyStore truststore = KeyStore.getInstance(truststoreType);
+        try (InputStream is = truststoreResource.getInputStream()) {
+            truststore.load(is, truststorePassword.toCharArray());
+        }
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory
+                .getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(truststore);
+        log.debug("Truststore loaded successfully");
+        return trustManagerFactory;
+    }
+}
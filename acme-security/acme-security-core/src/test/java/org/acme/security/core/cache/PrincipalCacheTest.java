@@ -0,0 +1,101 @@
+package org.acme.security.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.config.properties.UserCacheProperties;
+
+class PrincipalCacheTest {
+
+    private static final String SUBJECT = "CN=John Doe, OU=Users, DC=corp, DC=acme, DC=org";
+    private static final String ISSUER = "CN=Acme CA, DC=acme, DC=org";
+    private static final String NORMALIZED = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+
+    private static PrincipalCache principalCache(long maxSize) {
+        UserCacheProperties properties = new UserCacheProperties(true, Duration.ofMinutes(5), Duration.ofMinutes(30),
+                Duration.ofMinutes(1), 100, maxSize);
+        return new PrincipalCache(properties, new SimpleMeterRegistry());
+    }
+
+    private static UserInfo user() {
+        return new UserInfo(NORMALIZED, ISSUER, "John", "Doe", List.of("ACME_USER"));
+    }
+
+    private static Authentication token(UserInfo userInfo) {
+        return UsernamePasswordAuthenticationToken.authenticated(userInfo.getSubjectDn(), null, List.of());
+    }
+
+    @Test
+    void get_shouldReturnEntry_forSameRawHeaders() {
+        PrincipalCache cache = principalCache(10);
+        UserInfo user = user();
+        Authentication authentication = token(user);
+
+        cache.put(SUBJECT, ISSUER, NORMALIZED, user, authentication);
+
+        PrincipalCache.Entry entry = cache.get(SUBJECT, ISSUER);
+        assertNotNull(entry);
+        assertSame(authentication, entry.authentication());
+        assertTrue(entry.isBuiltFrom(user));
+    }
+
+    @Test
+    void get_shouldMiss_forDifferentIssuerOrSubjectFormatting() {
+        PrincipalCache cache = principalCache(10);
+        UserInfo user = user();
+        cache.put(SUBJECT, ISSUER, NORMALIZED, user, token(user));
+
+        assertNull(cache.get(SUBJECT, "CN=Other CA"));
+        assertNull(cache.get(SUBJECT, null));
+        assertNull(cache.get(NORMALIZED, ISSUER));
+    }
+
+    @Test
+    void get_shouldKeepOneEntryPerIssuer_forSameSubject() {
+        PrincipalCache cache = principalCache(10);
+        UserInfo user = user();
+        Authentication oldCa = token(user);
+        Authentication newCa = token(user);
+
+        cache.put(SUBJECT, ISSUER, NORMALIZED, user, oldCa);
+        cache.put(SUBJECT, "CN=Other CA", NORMALIZED, user, newCa);
+
+        assertSame(oldCa, cache.get(SUBJECT, ISSUER).authentication());
+        assertSame(newCa, cache.get(SUBJECT, "CN=Other CA").authentication());
+    }
+
+    @Test
+    void isBuiltFrom_shouldBeFalse_onceUsersCacheHoldsAnotherInstance() {
+        PrincipalCache cache = principalCache(10);
+        UserInfo user = user();
+        cache.put(SUBJECT, ISSUER, NORMALIZED, user, token(user));
+
+        PrincipalCache.Entry entry = cache.get(SUBJECT, ISSUER);
+
+        assertFalse(entry.isBuiltFrom(user()));
+        assertFalse(entry.isBuiltFrom(null));
+    }
+
+    @Test
+    void get_shouldAlwaysMiss_whenDisabled() {
+        PrincipalCache cache = principalCache(0);
+        UserInfo user = user();
+
+        cache.put(SUBJECT, ISSUER, NORMALIZED, user, token(user));
+
+        assertNull(cache.get(SUBJECT, ISSUER));
+    }
+}
@@ -0,0 +1,127 @@
+package org.acme.security.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("users", meterRegistry);
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("name", "users").counter().count();
+    }
+
+    @Test
+    void execute_shouldShareOneLoad_betweenConcurrentCallersForSameKey() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("cn=jdoe", () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                await(releaseLoad);
+                return "jdoe";
+            })));
+            await(loadStarted);
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("cn=jdoe", () -> {
+                    loads.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            waitForCoalesced(callers - 1);
+            releaseLoad.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("jdoe", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, counter(SingleFlight.LOADS_METRIC));
+        assertEquals(callers - 1, counter(SingleFlight.COALESCED_METRIC));
+    }
+
+    @Test
+    void execute_shouldLoadAgain_afterPreviousLoadCompleted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("cn=jdoe", () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.execute("cn=jdoe", () -> "v" + loads.incrementAndGet());
+
+        assertEquals("v2", second);
+        assertEquals(0, counter(SingleFlight.COALESCED_METRIC));
+    }
+
+    @Test
+    void execute_shouldPropagateLoaderException() {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("cn=jdoe", () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void executeAsync_shouldShareInFlightFuture_andUnwrapFailures() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("cn=jdoe", () -> load);
+        CompletableFuture<String> second = singleFlight.executeAsync("cn=jdoe",
+                () -> CompletableFuture.completedFuture("unexpected"));
+
+        assertSame(first, second);
+        assertEquals(1, counter(SingleFlight.COALESCED_METRIC));
+
+        IllegalStateException failure = new IllegalStateException("down");
+        load.completeExceptionally(failure);
+        ExecutionException thrown = assertThrows(ExecutionException.class, first::get);
+        assertSame(failure, thrown.getCause());
+
+        CompletableFuture<String> third = singleFlight.executeAsync("cn=jdoe",
+                () -> CompletableFuture.completedFuture("jdoe"));
+        assertEquals("jdoe", third.join());
+    }
+
+    private void waitForCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter(SingleFlight.COALESCED_METRIC) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.acme.security.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.auth.client.UserNotFoundException;
+import org.acme.security.core.config.properties.UserCacheProperties;
+
+class UserCacheTest {
+
+    private static final String DN = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+
+    private final AtomicLong now = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserCache userCache(boolean refreshAhead) {
+        UserCacheProperties properties = new UserCacheProperties(refreshAhead, Duration.ofMinutes(5),
+                Duration.ofMinutes(30), Duration.ofMinutes(1), 100, 100);
+        return new UserCache(new ConcurrentMapCacheManager(UserCache.USERS_CACHE), properties, meterRegistry,
+                now::get);
+    }
+
+    private static UserInfo user(String givenName) {
+        return new UserInfo(DN, "cn=ca", givenName, "Doe", List.of("ROLE_USER"));
+    }
+
+    private double refreshes(String result) {
+        return meterRegistry.get(UserCache.REFRESH_METRIC).tag("result", result).counter().count();
+    }
+
+    @Test
+    void load_shouldCacheResult() {
+        UserCache cache = userCache(true);
+        UserInfo john = user("John");
+
+        assertSame(john, cache.load(DN, () -> john));
+
+        assertSame(john, cache.get(DN).userInfo());
+        assertFalse(cache.isRefreshDue(cache.get(DN)));
+    }
+
+    @Test
+    void isRefreshDue_shouldBeTrue_afterSoftTtl() {
+        UserCache cache = userCache(true);
+        cache.load(DN, () -> user("John"));
+
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertTrue(cache.isRefreshDue(cache.get(DN)));
+    }
+
+    @Test
+    void isRefreshDue_shouldBeFalse_whenRefreshAheadDisabled() {
+        UserCache cache = userCache(false);
+        cache.load(DN, () -> user("John"));
+
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        UserCacheEntry entry = cache.get(DN);
+        assertFalse(cache.isRefreshDue(entry));
+    }
+
+    @Test
+    void get_shouldTreatEntryAsMiss_afterHardTtl_whenRefreshAheadDisabled() {
+        UserCache cache = userCache(false);
+        UserInfo john = user("John");
+        cache.load(DN, () -> john);
+
+        now.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertNull(cache.get(DN));
+        assertSame(john, cache.getLastKnown(DN));
+    }
+
+    @Test
+    void get_shouldTreatEntryAsMiss_afterHardTtl() {
+        UserCache cache = userCache(true);
+        cache.load(DN, () -> user("John"));
+
+        now.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertNull(cache.get(DN));
+    }
+
+    @Test
+    void refreshAsync_shouldReplaceEntry_onSuccess() {
+        UserCache cache = userCache(true);
+        cache.load(DN, () -> user("John"));
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+        UserInfo refreshed = user("Johnny");
+
+        cache.refreshAsync(DN, () -> CompletableFuture.completedFuture(refreshed));
+
+        UserCacheEntry entry = cache.get(DN);
+        assertSame(refreshed, entry.userInfo());
+        assertFalse(cache.isRefreshDue(entry));
+        assertEquals(1, refreshes("success"));
+    }
+
+    @Test
+    void refreshAsync_shouldKeepLastGoodValue_onFailure() {
+        UserCache cache = userCache(true);
+        UserInfo john = user("John");
+        cache.load(DN, () -> john);
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        cache.refreshAsync(DN, () -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        UserCacheEntry entry = cache.get(DN);
+        assertSame(john, entry.userInfo());
+        assertTrue(cache.isRefreshDue(entry));
+        assertEquals(1, refreshes("failure"));
+    }
+
+    @Test
+    void load_shouldRememberNotFound_untilNotFoundTtl() {
+        UserCache cache = userCache(true);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<UserInfo> unknown = () -> {
+            calls.incrementAndGet();
+            throw new UserNotFoundException(DN);
+        };
+
+        assertThrows(UserNotFoundException.class, () -> cache.load(DN, unknown));
+        assertThrows(UserNotFoundException.class, () -> cache.load(DN, unknown));
+        assertEquals(1, calls.get());
+
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertThrows(UserNotFoundException.class, () -> cache.load(DN, unknown));
+        assertEquals(2, calls.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", UserCache.USERS_NOT_FOUND_CACHE)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void load_shouldNotRememberServiceErrors() {
+        UserCache cache = userCache(true);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<UserInfo> failing = () -> {
+            calls.incrementAndGet();
+            throw new BadCredentialsException("Authentication service error: down");
+        };
+
+        assertThrows(BadCredentialsException.class, () -> cache.load(DN, failing));
+        assertThrows(BadCredentialsException.class, () -> cache.load(DN, failing));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void loadAsync_shouldRememberNotFound() {
+        UserCache cache = userCache(true);
+
+        CompletableFuture<UserInfo> first = cache.loadAsync(DN,
+                () -> CompletableFuture.failedFuture(new UserNotFoundException(DN)));
+        assertThrows(CompletionException.class, first::join);
+
+        CompletableFuture<UserInfo> second = cache.loadAsync(DN,
+                () -> CompletableFuture.completedFuture(user("John")));
+        CompletionException thrown = assertThrows(CompletionException.class, second::join);
+        assertTrue(thrown.getCause() instanceof UserNotFoundException);
+    }
+
+    @Test
+    void refreshAsync_shouldEvictEntry_whenUserNoLongerExists() {
+        UserCache cache = userCache(true);
+        cache.load(DN, () -> user("John"));
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        cache.refreshAsync(DN, () -> CompletableFuture.failedFuture(new UserNotFoundException(DN)));
+
+        assertNull(cache.get(DN));
+        assertThrows(UserNotFoundException.class, () -> cache.load(DN, () -> user("John")));
+    }
+
+    @Test
+    void isRefreshDue_shouldUseServerMaxAge_whenPresent() {
+        UserCache cache = userCache(true);
+        cache.load(DN, () -> UserInfo.builder().subjectDn(DN).maxAge(Duration.ofMinutes(1)).build());
+
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertTrue(cache.isRefreshDue(cache.get(DN)));
+    }
+
+    @Test
+    void get_shouldExpireAtServerMaxAge_whenRefreshAheadDisabled() {
+        UserCache cache = userCache(false);
+        cache.load(DN, () -> UserInfo.builder().subjectDn(DN).maxAge(Duration.ofMinutes(1)).build());
+
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertNull(cache.get(DN));
+    }
+
+    @Test
+    void refreshAsync_shouldRestartTtl_whenUserNotModified() {
+        UserCache cache = userCache(true);
+        UserInfo john = user("John");
+        cache.load(DN, () -> john);
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        cache.refreshAsync(DN, () -> CompletableFuture.completedFuture(john));
+
+        UserCacheEntry entry = cache.get(DN);
+        assertSame(john, entry.userInfo());
+        assertFalse(cache.isRefreshDue(entry));
+        assertEquals(1, refreshes("not-modified"));
+        assertEquals(0, refreshes("success"));
+    }
+
+    @Test
+    void loadAsync_shouldNotCacheResult_whenEvictedWhileLoading() {
+        UserCache cache = userCache(true);
+        CompletableFuture<UserInfo> pending = new CompletableFuture<>();
+        CompletableFuture<UserInfo> load = cache.loadAsync(DN, () -> pending);
+
+        cache.evict(DN);
+        UserInfo beforeChange = user("John");
+        pending.complete(beforeChange);
+
+        assertSame(beforeChange, load.join());
+        assertNull(cache.get(DN));
+        UserInfo afterChange = user("Johnny");
+        assertSame(afterChange, cache.load(DN, () -> afterChange));
+        assertSame(afterChange, cache.get(DN).userInfo());
+    }
+
+    @Test
+    void load_shouldNotCacheResult_whenClearedWhileLoading() throws Exception {
+        UserCache cache = userCache(true);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        CompletableFuture<UserInfo> load = CompletableFuture.supplyAsync(() -> cache.load(DN, () -> {
+            loading.countDown();
+            try {
+                cleared.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return user("John");
+        }));
+
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.clear();
+        cleared.countDown();
+
+        assertEquals("John", load.get(5, TimeUnit.SECONDS).getGivenName());
+        assertNull(cache.get(DN));
+    }
+
+    @Test
+    void loadAsync_shouldNotRememberNotFound_whenEvictedWhileLoading() {
+        UserCache cache = userCache(true);
+        CompletableFuture<UserInfo> pending = new CompletableFuture<>();
+        CompletableFuture<UserInfo> load = cache.loadAsync(DN, () -> pending);
+
+        cache.evict(DN);
+        pending.completeExceptionally(new UserNotFoundException(DN));
+
+        assertThrows(CompletionException.class, load::join);
+        UserInfo created = user("John");
+        assertSame(created, cache.load(DN, () -> created));
+    }
+}
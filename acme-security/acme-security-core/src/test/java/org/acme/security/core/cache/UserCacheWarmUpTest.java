@@ -0,0 +1,133 @@
+package org.acme.security.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.client.AuthServiceClient;
+import org.acme.auth.client.AuthServiceEndpoints;
+import org.acme.auth.client.UserChangeSubscriber;
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+import org.acme.security.core.config.properties.UserCacheProperties;
+import org.acme.security.core.config.properties.UserCacheWarmUpProperties;
+import org.acme.security.core.resilience.AuthServiceGuard;
+
+class UserCacheWarmUpTest {
+
+    private static final String JOHN = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String JANE = "cn=jane doe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String MAX = "cn=max doe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String RECENT_URL = "http://auth/api/auth/users/recent?limit=1000";
+    private static final String BATCH_URL = "http://auth/api/auth/users/batch";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestClient.Builder builder = RestClient.builder().baseUrl("http://auth");
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+    private final UserCache userCache = new UserCache(new ConcurrentMapCacheManager(UserCache.USERS_CACHE),
+            new UserCacheProperties(true, Duration.ofMinutes(5), Duration.ofMinutes(30), Duration.ofMinutes(1), 100,
+                    100),
+            meterRegistry);
+
+    private UserCacheWarmUp warmUp(boolean enabled) {
+        AuthServiceGuard guard = new AuthServiceGuard(new AuthServiceResilienceProperties(false, 100, 50, 20, 10,
+                Duration.ofSeconds(10), 3), meterRegistry);
+        UserChangeSubscriber changes = new UserChangeSubscriber(RestClient.create(),
+                new AuthServiceEndpoints(List.of("http://auth"), Duration.ZERO), false, Duration.ofSeconds(5));
+        return new UserCacheWarmUp(new AuthServiceClient(builder.build()), changes, userCache, guard,
+                new UserCacheWarmUpProperties(enabled, 1000, 2, 1, Duration.ofSeconds(10)));
+    }
+
+    private static String users(String... dns) {
+        StringBuilder json = new StringBuilder("{");
+        for (String dn : dns) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(dn).append("\":{\"subjectDn\":\"").append(dn)
+                    .append("\",\"issuerDn\":\"cn=ca\",\"roles\":[\"ACME_READ_ONLY\"]}");
+        }
+        return json.append('}').toString();
+    }
+
+    @Test
+    void warmUp_shouldLoadRecentUsers_inBatches() {
+        UserCacheWarmUp warmUp = warmUp(true);
+        server.expect(requestTo(RECENT_URL))
+                .andRespond(withSuccess("[\"" + JOHN + "\",\"" + JANE + "\",\"" + MAX + "\"]",
+                        MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BATCH_URL))
+                .andExpect(content().string("[\"" + JOHN + "\",\"" + JANE + "\"]"))
+                .andRespond(withSuccess(users(JOHN, JANE), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BATCH_URL))
+                .andExpect(content().string("[\"" + MAX + "\"]"))
+                .andRespond(withSuccess(users(MAX), MediaType.APPLICATION_JSON));
+
+        warmUp.warmUp();
+
+        server.verify();
+        assertEquals(UserCacheWarmUp.Status.COMPLETED, warmUp.status());
+        assertEquals(3, warmUp.total());
+        assertEquals(3, warmUp.loaded());
+        assertNotNull(userCache.get(JOHN));
+        assertNotNull(userCache.get(MAX));
+    }
+
+    @Test
+    void warmUp_shouldSkipUsersAlreadyCached() {
+        UserCacheWarmUp warmUp = warmUp(true);
+        UserInfo cached = new UserInfo(JOHN, "cn=ca", "John", "Doe", List.of("ACME_READ_WRITE"));
+        userCache.load(JOHN, () -> cached);
+        server.expect(requestTo(RECENT_URL))
+                .andRespond(withSuccess("[\"" + JOHN + "\",\"" + JANE + "\"]", MediaType.APPLICATION_JSON));
+        server.expect(method(HttpMethod.POST))
+                .andExpect(content().string("[\"" + JANE + "\"]"))
+                .andRespond(withSuccess(users(JANE), MediaType.APPLICATION_JSON));
+
+        warmUp.warmUp();
+
+        server.verify();
+        assertEquals(1, warmUp.loaded());
+        assertSame(cached, userCache.get(JOHN).userInfo());
+    }
+
+    @Test
+    void warmUp_shouldFinish_whenAuthServiceFails() {
+        UserCacheWarmUp warmUp = warmUp(true);
+        UserCacheWarmUpHealthIndicator health = new UserCacheWarmUpHealthIndicator(warmUp);
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+        server.expect(requestTo(RECENT_URL)).andRespond(withServerError());
+
+        warmUp.warmUp();
+
+        assertEquals(UserCacheWarmUp.Status.FAILED, warmUp.status());
+        assertEquals(Status.UP, health.health().getStatus());
+    }
+
+    @Test
+    void health_shouldBeUp_whenWarmUpDisabled() {
+        UserCacheWarmUpHealthIndicator health = new UserCacheWarmUpHealthIndicator(warmUp(false));
+
+        assertEquals(Status.UP, health.health().getStatus());
+        assertEquals("disabled", health.health().getDetails().get("status"));
+    }
+}
@@ -0,0 +1,148 @@
+package org.acme.security.core.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.security.core.config.properties.AcmeSecurityPropertiesConfiguration;
+
+class AuthServiceTransportConfigTest {
+
+    private static final String PASSWORD = "changeit";
+
+    @TempDir
+    Path dir;
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(AcmeSecurityPropertiesConfiguration.class, AuthServiceTransportConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    /**
+     * Self-signed keystore for {@code CN=auth-service-ldap} without subject
+     * alternative names, i.e. a certificate that does not match {@code localhost}.
+     */
+    private Path keystore(String name) throws Exception {
+        Path path = dir.resolve(name + ".p12");
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", name, "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=auth-service-ldap",
+                "-validity", "1", "-storetype", "PKCS12", "-keystore", path.toString(), "-storepass", PASSWORD,
+                "-keypass", PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(keytool.getInputStream().readAllBytes());
+        assertEquals(0, keytool.waitFor(), output);
+        return path;
+    }
+
+    private static HttpsServer httpsServer(Path keystore) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keystore)) {
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD.toCharArray());
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), null, null);
+
+        HttpsServer server = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static double pool(MeterRegistry registry, String name) {
+        return registry.get(name).tag("httpclient", AuthServiceTransportConfig.POOL_NAME).gauge().value();
+    }
+
+    @Test
+    void shouldUsePooledTransport_withPoolMetrics_byDefault() {
+        contextRunner.withPropertyValues("auth.service.transport.max-connections=20",
+                "auth.service.transport.max-connections-per-route=5").run(context -> {
+                    assertInstanceOf(HttpComponentsClientHttpRequestFactory.class,
+                            context.getBean(ClientHttpRequestFactory.class));
+                    assertInstanceOf(HttpComponentsClientHttpRequestFactory.class,
+                            context.getBean("authServiceStreamingClientHttpRequestFactory"));
+
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertEquals(20, pool(registry, "httpcomponents.httpclient.pool.total.max"));
+                    assertEquals(5, pool(registry, "httpcomponents.httpclient.pool.route.max.default"));
+                    assertEquals(0, pool(registry, "httpcomponents.httpclient.pool.total.pending"));
+                    assertEquals(0, registry.get("httpcomponents.httpclient.pool.total.connections")
+                            .tag("state", "leased").gauge().value());
+                });
+    }
+
+    @Test
+    void shouldUseJdkTransport_whenHttp2Enabled() {
+        contextRunner.withPropertyValues("auth.service.transport.http2=true").run(context -> {
+            assertInstanceOf(JdkClientHttpRequestFactory.class, context.getBean(ClientHttpRequestFactory.class));
+            assertInstanceOf(JdkClientHttpRequestFactory.class,
+                    context.getBean("authServiceStreamingClientHttpRequestFactory"));
+            assertEquals(HttpClient.Version.HTTP_2, context.getBean(HttpClient.class).version());
+        });
+    }
+
+    @Test
+    void shouldNotVerifyHostNames_butValidateChain_whenHttp2Enabled() throws Exception {
+        Path truststore = keystore("trusted");
+        HttpsServer trusted = httpsServer(truststore);
+        HttpsServer untrusted = httpsServer(keystore("untrusted"));
+        try {
+            contextRunner.withUserConfiguration(SslConfig.class)
+                    .withPropertyValues("auth.service.transport.http2=true", "auth.service.ssl.enabled=true",
+                            "auth.service.ssl.truststore.path=file:" + truststore,
+                            "auth.service.ssl.truststore.password=" + PASSWORD,
+                            "auth.service.ssl.truststore.type=PKCS12",
+                            "auth.service.ssl.reload-interval=0")
+                    .run(context -> {
+                        ClientHttpRequestFactory requestFactory = context.getBean(ClientHttpRequestFactory.class);
+
+                        URI matchingChain = URI.create("https://localhost:" + trusted.getAddress().getPort() + "/");
+                        try (ClientHttpResponse response = requestFactory
+                                .createRequest(matchingChain, HttpMethod.GET).execute()) {
+                            assertEquals(204, response.getStatusCode().value());
+                        }
+
+                        URI unknownChain = URI.create("https://localhost:" + untrusted.getAddress().getPort() + "/");
+                        assertThrows(Exception.class,
+                                () -> requestFactory.createRequest(unknownChain, HttpMethod.GET).execute().close());
+                    });
+        } finally {
+            trusted.stop(0);
+            untrusted.stop(0);
+        }
+    }
+}
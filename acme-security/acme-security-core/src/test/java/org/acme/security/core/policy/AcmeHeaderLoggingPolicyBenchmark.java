@@ -0,0 +1,87 @@
+package org.acme.security.core.policy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.acme.security.core.config.properties.HeaderFilterProperties;
+import org.acme.security.core.util.HeaderValuePatternMatcher;
+
+/**
+ * Cost of {@link AcmeHeaderLoggingPolicy#matchesIgnoreRules} for the probe
+ * rules of {@code simulate-traffic.sh}, on a mix of probe and client
+ * User-Agents: the former stream over {@link HeaderValuePatternMatcher}
+ * regexes versus the compiled {@code HeaderValuePatternSet}. Not picked up by
+ * the regular build (no {@code Test} suffix); run with:
+ *
+ * <pre>
+ * mvn -pl acme-security/acme-security-core -am test -Dtest=AcmeHeaderLoggingPolicyBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class AcmeHeaderLoggingPolicyBenchmark {
+
+    private static final String IGNORE_HEADERS = "{\"user-agent\":[\"ELB-HealthChecker/*\",\"HealthChecker/*\","
+            + "\"kube-probe/*\",\"GoogleHC/1.0\",\"Consul Health Check\",\"*-synthetics-*\"]}";
+    private static final String[] USER_AGENTS = { "kube-probe/1.28", "ELB-HealthChecker/2.0", "curl/8.7.1",
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0 Safari/537.36",
+            "HealthChecker/1.0", "acme-client/3.4.1 (java 21)", "datadog-synthetics-browser", "GoogleHC/1.0" };
+    private static final int WARMUP_ITERATIONS = 500_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    void matchesIgnoreRules() {
+        AcmeHeaderLoggingPolicy policy = new AcmeHeaderLoggingPolicy(new HeaderFilterProperties(false, IGNORE_HEADERS),
+                new ObjectMapper());
+        Map<String, List<HeaderValuePatternMatcher>> matchers = policy.getIgnoredHeaderMatchers();
+        List<Map<String, List<String>>> requests = Arrays.stream(USER_AGENTS)
+                .map(userAgent -> Map.of("user-agent", List.of(userAgent)))
+                .toList();
+
+        // The former AcmeHeaderLoggingPolicy.matchesIgnoreRules
+        Predicate<Map<String, List<String>>> streams = headers -> matchers.entrySet().stream()
+                .anyMatch(entry -> {
+                    List<String> values = headers.get(entry.getKey());
+                    if (values == null || values.isEmpty()) {
+                        return false;
+                    }
+                    return values.stream()
+                            .anyMatch(headerValue -> entry.getValue().stream()
+                                    .anyMatch(matcher -> matcher.matches(headerValue)));
+                });
+        Predicate<Map<String, List<String>>> compiled = policy::matchesIgnoreRules;
+
+        int expected = run("streams+regex", streams, requests);
+        assertEquals(expected, run("compiled", compiled, requests));
+    }
+
+    private static int run(String name, Predicate<Map<String, List<String>>> matcher,
+            List<Map<String, List<String>>> requests) {
+        measure(matcher, requests, WARMUP_ITERATIONS);
+        long start = System.nanoTime();
+        int matches = measure(matcher, requests, ITERATIONS);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-14s %10d checks/s %6d ns/check%n", name,
+                TimeUnit.SECONDS.toNanos(1) * ITERATIONS / elapsed, elapsed / ITERATIONS);
+        return matches;
+    }
+
+    private static int measure(Predicate<Map<String, List<String>>> matcher,
+            List<Map<String, List<String>>> requests, int iterations) {
+        int matches = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (matcher.test(requests.get(i % requests.size()))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
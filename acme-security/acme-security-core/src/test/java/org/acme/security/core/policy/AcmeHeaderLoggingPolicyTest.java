@@ -1,8 +1,10 @@
 package org.acme.security.core.policy;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -63,4 +65,29 @@ class AcmeHeaderLoggingPolicyTest {
         AcmeHeaderLoggingPolicy p = policy(false, SAMPLE_IGNORE_HEADERS);
         assertFalse(p.shouldLog(false, ua("curl/8.7.1")));
     }
+
+    @Test
+    void matchesIgnoreRules_shouldOnlyReadHeadersWithRules_fromHeaderView() {
+        AcmeHeaderLoggingPolicy p = policy(false, SAMPLE_IGNORE_HEADERS);
+        List<String> requested = new ArrayList<>();
+        HeaderView headers = (name, predicate) -> {
+            requested.add(name);
+            return predicate.test("kube-probe/1.28");
+        };
+
+        assertTrue(p.matchesIgnoreRules(headers));
+        assertFalse(p.shouldLog(true, headers));
+        assertEquals(List.of("user-agent", "user-agent"), requested);
+    }
+
+    @Test
+    void matchesIgnoreRules_shouldNotReadHeaders_whenNoRules() {
+        AcmeHeaderLoggingPolicy p = policy(false, null);
+        HeaderView headers = (name, predicate) -> {
+            throw new AssertionError("unexpected header lookup: " + name);
+        };
+
+        assertFalse(p.matchesIgnoreRules(headers));
+        assertTrue(p.shouldLog(true, headers));
+    }
 }
@@ -0,0 +1,133 @@
+package org.acme.security.core.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.auth.client.UserNotFoundException;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+import org.acme.security.core.resilience.AuthServiceGuard.State;
+
+class AuthServiceGuardTest {
+
+    private static final String DN = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+
+    private final AtomicLong now = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuthServiceGuard guard(int maxConcurrentCalls) {
+        AuthServiceResilienceProperties properties = new AuthServiceResilienceProperties(true, maxConcurrentCalls,
+                50, 4, 4, Duration.ofSeconds(10), 2);
+        return new AuthServiceGuard(properties, meterRegistry, now::get);
+    }
+
+    private static String fail() {
+        throw new BadCredentialsException("Authentication service error: timeout");
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get(AuthServiceGuard.CALLS_METRIC).tag("result", result).counter().count();
+    }
+
+    private void openCircuit(AuthServiceGuard guard) {
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> "ok");
+            assertThrows(BadCredentialsException.class, () -> guard.call(AuthServiceGuardTest::fail));
+        }
+    }
+
+    @Test
+    void call_shouldOpenCircuit_atFailureRateThreshold() {
+        AuthServiceGuard guard = guard(10);
+
+        openCircuit(guard);
+
+        assertEquals(State.OPEN, guard.state());
+        assertThrows(AuthServiceUnavailableException.class, () -> guard.call(() -> "ok"));
+        assertEquals(1, calls("circuit-open"));
+        assertEquals(1, meterRegistry.get(AuthServiceGuard.STATE_METRIC).tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void call_shouldNotCountUserNotFoundAsFailure() {
+        AuthServiceGuard guard = guard(10);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserNotFoundException.class, () -> guard.call(() -> {
+                throw new UserNotFoundException(DN);
+            }));
+        }
+
+        assertEquals(State.CLOSED, guard.state());
+        assertEquals(4, calls("success"));
+    }
+
+    @Test
+    void call_shouldCloseCircuit_afterSuccessfulTrialCalls() {
+        AuthServiceGuard guard = guard(10);
+        openCircuit(guard);
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        guard.call(() -> "ok");
+        assertEquals(State.HALF_OPEN, guard.state());
+        guard.call(() -> "ok");
+
+        assertEquals(State.CLOSED, guard.state());
+        assertEquals(1, meterRegistry.get(AuthServiceGuard.TRANSITIONS_METRIC)
+                .tag("from", "half-open").tag("to", "closed").counter().count());
+    }
+
+    @Test
+    void call_shouldReopenCircuit_whenTrialCallFails() {
+        AuthServiceGuard guard = guard(10);
+        openCircuit(guard);
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertThrows(BadCredentialsException.class, () -> guard.call(AuthServiceGuardTest::fail));
+
+        assertEquals(State.OPEN, guard.state());
+        assertThrows(AuthServiceUnavailableException.class, () -> guard.call(() -> "ok"));
+    }
+
+    @Test
+    void callAsync_shouldRejectCalls_whenBulkheadFull() {
+        AuthServiceGuard guard = guard(1);
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        guard.callAsync(() -> inFlight);
+
+        CompletableFuture<String> rejected = guard.callAsync(() -> CompletableFuture.completedFuture("ok"));
+
+        CompletionException thrown = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(thrown.getCause() instanceof AuthServiceUnavailableException);
+        assertEquals(1, calls("bulkhead-full"));
+
+        inFlight.complete("ok");
+        assertEquals("ok", guard.callAsync(() -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void fallback_shouldReturnLastKnownUser_orRethrow() {
+        AuthServiceGuard guard = guard(10);
+        AuthServiceUnavailableException rejected = new AuthServiceUnavailableException("open");
+        UserInfo john = new UserInfo(DN, "cn=ca", "John", "Doe", List.of("ROLE_USER"));
+
+        assertSame(john, guard.fallback(DN, rejected, john));
+        assertSame(rejected, assertThrows(AuthServiceUnavailableException.class,
+                () -> guard.fallback(DN, rejected, null)));
+        assertEquals(1, meterRegistry.get(AuthServiceGuard.FALLBACK_METRIC).counter().count());
+    }
+}
@@ -0,0 +1,78 @@
+package org.acme.security.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.client.RestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.acme.auth.client.AuthServiceClient;
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.UserCache;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+import org.acme.security.core.config.properties.UserCacheProperties;
+import org.acme.security.core.resilience.AuthServiceGuard;
+import org.acme.security.core.resilience.AuthServiceUnavailableException;
+
+class CachedUserLookupServiceTest {
+
+    private static final String DN = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+
+    private final AtomicInteger authServiceCalls = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // A zero hard TTL puts every entry past it as soon as it is written
+    private final UserCache userCache = new UserCache(new ConcurrentMapCacheManager(UserCache.USERS_CACHE),
+            new UserCacheProperties(true, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(1), 100, 100),
+            meterRegistry);
+    private final AuthServiceGuard guard = new AuthServiceGuard(
+            new AuthServiceResilienceProperties(true, 10, 50, 4, 4, Duration.ofMinutes(1), 2), meterRegistry);
+    private final CachedUserLookupService service = new CachedUserLookupService(
+            new AuthServiceClient(RestClient.builder()
+                    .baseUrl("http://auth")
+                    .requestInterceptor((request, body, execution) -> {
+                        authServiceCalls.incrementAndGet();
+                        throw new BadCredentialsException("Authentication service error: down");
+                    })
+                    .build()),
+            userCache, guard);
+
+    private void openCircuit() {
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> "ok");
+            assertThrows(BadCredentialsException.class, () -> guard.call(() -> {
+                throw new BadCredentialsException("Authentication service error: timeout");
+            }));
+        }
+    }
+
+    @Test
+    void lookupUser_shouldReturnLastKnownUserPastHardTtl_whenCircuitOpen() {
+        UserInfo john = new UserInfo(DN, "cn=ca", "John", "Doe", List.of("ROLE_USER"));
+        userCache.putIfAbsent(DN, john);
+        openCircuit();
+
+        assertNull(userCache.get(DN));
+        assertSame(john, service.lookupUser(DN));
+        assertEquals(0, authServiceCalls.get());
+        assertEquals(1, meterRegistry.get(AuthServiceGuard.FALLBACK_METRIC).counter().count());
+    }
+
+    @Test
+    void lookupUser_shouldRethrow_whenCircuitOpenAndNoLastKnownUser() {
+        openCircuit();
+
+        assertThrows(AuthServiceUnavailableException.class, () -> service.lookupUser(DN));
+        assertEquals(0, authServiceCalls.get());
+    }
+}
@@ -0,0 +1,115 @@
+package org.acme.security.core.ssl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class ReloadableSslMaterialTest {
+
+    private static final String PASSWORD = "changeit";
+    private static final String ALIAS = "client";
+
+    @TempDir
+    Path dir;
+
+    private Path keystore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keystore = dir.resolve("client.p12");
+        generateKeystore(keystore, "client-a");
+    }
+
+    private ReloadableSslMaterial material() throws Exception {
+        // The self-signed certificate also serves as the only trusted one
+        FileSystemResource resource = new FileSystemResource(keystore);
+        return new ReloadableSslMaterial(resource, PASSWORD, "PKCS12", resource, PASSWORD, "PKCS12");
+    }
+
+    private static void generateKeystore(Path path, String commonName) throws Exception {
+        Path generated = path.resolveSibling(commonName + ".p12");
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", ALIAS, "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=" + commonName,
+                "-validity", "1", "-storetype", "PKCS12", "-keystore", generated.toString(), "-storepass", PASSWORD,
+                "-keypass", PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(keytool.getInputStream().readAllBytes());
+        assertEquals(0, keytool.waitFor(), output);
+        Files.move(generated, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String clientName(ReloadableSslMaterial material) {
+        return material.keyManager().getCertificateChain(ALIAS)[0].getSubjectX500Principal().getName();
+    }
+
+    private static String trustedName(ReloadableSslMaterial material) {
+        X509Certificate[] issuers = material.trustManager().getAcceptedIssuers();
+        assertEquals(1, issuers.length);
+        return issuers[0].getSubjectX500Principal().getName();
+    }
+
+    @Test
+    void constructor_shouldLoadStores() throws Exception {
+        try (ReloadableSslMaterial material = material()) {
+            assertEquals("CN=client-a", clientName(material));
+            assertEquals("CN=client-a", trustedName(material));
+        }
+    }
+
+    @Test
+    void reloadIfChanged_shouldSwapMaterial_whenStoreChanged() throws Exception {
+        try (ReloadableSslMaterial material = material()) {
+            AtomicInteger reloads = new AtomicInteger();
+            material.onReload(reloads::incrementAndGet);
+
+            generateKeystore(keystore, "client-b");
+
+            assertTrue(material.reloadIfChanged());
+            assertEquals("CN=client-b", clientName(material));
+            assertEquals("CN=client-b", trustedName(material));
+            assertEquals(1, reloads.get());
+        }
+    }
+
+    @Test
+    void reloadIfChanged_shouldDoNothing_whenStoreUnchanged() throws Exception {
+        try (ReloadableSslMaterial material = material()) {
+            AtomicInteger reloads = new AtomicInteger();
+            material.onReload(reloads::incrementAndGet);
+
+            assertFalse(material.reloadIfChanged());
+            assertEquals(0, reloads.get());
+        }
+    }
+
+    @Test
+    void reloadIfChanged_shouldKeepCurrentMaterial_whenStoreInvalid() throws Exception {
+        try (ReloadableSslMaterial material = material()) {
+            AtomicInteger reloads = new AtomicInteger();
+            material.onReload(reloads::incrementAndGet);
+
+            Files.writeString(keystore, "not a keystore");
+
+            assertFalse(material.reloadIfChanged());
+            assertEquals("CN=client-a", clientName(material));
+            assertEquals(0, reloads.get());
+
+            // Picked up once the store is valid again
+            generateKeystore(keystore, "client-b");
+            assertTrue(material.reloadIfChanged());
+            assertEquals("CN=client-b", clientName(material));
+        }
+    }
+}
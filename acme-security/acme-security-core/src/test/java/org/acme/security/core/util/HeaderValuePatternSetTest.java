@@ -0,0 +1,76 @@
+package org.acme.security.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HeaderValuePatternSetTest {
+
+    @Test
+    void matches_shouldMatchProbeUserAgents() {
+        HeaderValuePatternSet set = HeaderValuePatternSet
+                .compile(List.of("ELB-HealthChecker/*", "HealthChecker/*", "kube-probe/*"));
+
+        assertTrue(set.matches("kube-probe/1.28"));
+        assertTrue(set.matches("ELB-HealthChecker/2.0"));
+        assertTrue(set.matches("HealthChecker/"));
+        assertFalse(set.matches("curl/8.7.1"));
+        assertFalse(set.matches("kube-probe"));
+        assertFalse(set.matches(null));
+    }
+
+    @Test
+    void matches_shouldHandleEachPatternShape() {
+        HeaderValuePatternSet set = HeaderValuePatternSet
+                .compile(List.of("exact", "prefix/*", "*.internal", "a*b*c", "*mid*", "x**y"));
+
+        assertTrue(set.matches("exact"));
+        assertFalse(set.matches("exact2"));
+        assertTrue(set.matches("prefix/1"));
+        assertTrue(set.matches("host.internal"));
+        assertTrue(set.matches("abc"));
+        assertTrue(set.matches("a-b-b-c"));
+        assertFalse(set.matches("a-b-cd"));
+        assertTrue(set.matches("amidst"));
+        assertTrue(set.matches("xy"));
+        assertFalse(set.matches("yx"));
+        assertTrue(HeaderValuePatternSet.compile(List.of("**")).matches("anything"));
+        assertFalse(HeaderValuePatternSet.compile(List.of()).matches(""));
+    }
+
+    @Test
+    void matches_shouldAgreeWithPatternMatchers_acrossAutomatonBoundaries() {
+        Random random = new Random(42);
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            patterns.add(randomString(random, 2 + random.nextInt(i == 0 ? 80 : 12), true));
+        }
+        List<HeaderValuePatternMatcher> matchers = patterns.stream().map(HeaderValuePatternMatcher::compile).toList();
+        HeaderValuePatternSet set = HeaderValuePatternSet.compile(patterns);
+
+        for (int i = 0; i < 20_000; i++) {
+            String value = randomString(random, random.nextInt(16), false);
+            boolean expected = matchers.stream().anyMatch(matcher -> matcher.matches(value));
+            assertEquals(expected, set.matches(value), value);
+        }
+        for (String pattern : patterns) {
+            String value = pattern.replace("*", "€");
+            assertEquals(matchers.stream().anyMatch(matcher -> matcher.matches(value)), set.matches(value), value);
+        }
+    }
+
+    private static String randomString(Random random, int length, boolean wildcards) {
+        String alphabet = wildcards ? "ab/€**" : "ab/€";
+        StringBuilder value = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package org.acme.security.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import org.acme.security.core.model.SecurityConstants;
+
+/**
+ * Cost of the public-endpoint check run by every filter and converter, for a
+ * mix of public and protected paths: the former per-request regex (WebFlux),
+ * the former allocating prefix check (MVC) and {@link PublicPathMatcher}. Not
+ * picked up by the regular build (no {@code Test} suffix); run with:
+ *
+ * <pre>
+ * mvn -pl acme-security/acme-security-core -am test -Dtest=PublicPathMatcherBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class PublicPathMatcherBenchmark {
+
+    private static final String[] PATHS = { "/api/v1/books", "/api/v1/books/42", "/actuator/health",
+            "/actuator/prometheus", "/v3/api-docs", "/swagger-ui/index.html", "/error", "/api/v1/authors/7" };
+    private static final int WARMUP_ITERATIONS = 2_000_000;
+    private static final int ITERATIONS = 5_000_000;
+
+    private static boolean regex(String path) {
+        for (String publicEndpoint : SecurityConstants.PUBLIC_ENDPOINTS) {
+            if (path.matches(publicEndpoint.replace("**", ".*"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean prefixConcat(String path) {
+        return PathMatcherUtil.matchesAnyPattern(path, SecurityConstants.PUBLIC_ENDPOINTS);
+    }
+
+    @Test
+    void publicEndpointCheck() {
+        // The regex variant also missed "/v3/api-docs" itself, so its count differs
+        run("regex", PublicPathMatcherBenchmark::regex, ITERATIONS / 10);
+        int expected = run("prefix+concat", PublicPathMatcherBenchmark::prefixConcat, ITERATIONS);
+        assertEquals(expected, run("compiled", PublicPathMatcher.PUBLIC_ENDPOINTS::matches, ITERATIONS));
+    }
+
+    private static int run(String name, Predicate<String> matcher, int iterations) {
+        measure(matcher, Math.min(WARMUP_ITERATIONS, iterations));
+        long start = System.nanoTime();
+        int matches = measure(matcher, iterations);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-14s %10d checks/s %6d ns/check%n", name,
+                TimeUnit.SECONDS.toNanos(1) * iterations / elapsed, elapsed / iterations);
+        return matches;
+    }
+
+    private static int measure(Predicate<String> matcher, int iterations) {
+        int matches = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (matcher.test(PATHS[i % PATHS.length])) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,44 @@
+package org.acme.security.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import org.acme.security.core.model.SecurityConstants;
+
+class PublicPathMatcherTest {
+
+    private static final String[] PATHS = { "", "/", "/actuator", "/actuator/", "/actuator/health",
+            "/actuatorx", "/error", "/error/extra", "/swagger-ui.html", "/swagger-ui.html/extra", "/swagger-ui",
+            "/swagger-ui/index.html", "/v3/api-docs", "/v3/api-docs/openapi.json", "/v3/api-docs-private",
+            "/api/v1/books", "/api/v1/books/1" };
+
+    @Test
+    void matches_shouldAgreeWithPatternRules_forPublicEndpoints() {
+        for (String path : PATHS) {
+            assertEquals(PathMatcherUtil.matchesAnyPattern(path, SecurityConstants.PUBLIC_ENDPOINTS),
+                    PublicPathMatcher.PUBLIC_ENDPOINTS.matches(path), path);
+        }
+    }
+
+    @Test
+    void matches_shouldMatchPrefixAndSubpaths_forDoubleWildcard() {
+        PublicPathMatcher matcher = PublicPathMatcher.compile("/internal/**", "/ping");
+
+        assertTrue(matcher.matches("/internal"));
+        assertTrue(matcher.matches("/internal/status"));
+        assertTrue(matcher.matches("/ping"));
+        assertFalse(matcher.matches("/internals"));
+        assertFalse(matcher.matches("/ping/1"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void compile_shouldRejectUnsupportedWildcards() {
+        assertThrows(IllegalArgumentException.class, () -> PublicPathMatcher.compile("/api/*/public"));
+        assertThrows(IllegalArgumentException.class, () -> PublicPathMatcher.compile("/api/{id}"));
+    }
+}
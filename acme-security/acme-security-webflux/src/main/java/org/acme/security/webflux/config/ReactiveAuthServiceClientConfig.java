@@ -0,0 +1,97 @@
+package org.acme.security.webflux.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.acme.auth.client.AuthServiceEndpoints;
+import org.acme.auth.client.AuthServiceWireFormat;
+import org.acme.auth.client.ReactiveAuthServiceClient;
+import org.acme.security.core.config.properties.AuthServiceTransportProperties;
+
+/**
+ * Configuration for the {@link ReactiveAuthServiceClient} bean. Provides a
+ * WebClient configured with the auth service base URL.
+ * <p>
+ * If SSL is enabled (via {@code auth.service.ssl.enabled=true}), this will use
+ * the SSL-configured ClientHttpConnector provided by {@link ReactiveSslConfig}.
+ * Otherwise, it uses a Reactor Netty client with
+ * {@code auth.service.connect-timeout} (default 2s) and a response timeout of
+ * {@code auth.service.read-timeout} (default 3s).
+ * <p>
+ * Both use a dedicated connection pool configured from
+ * {@code auth.service.transport.*} (see {@link AuthServiceTransportProperties}):
+ * {@code max-connections-per-route} connections per replica, closed after
+ * {@code keep-alive} idle (checked every {@code evict-idle-after}) and retired
+ * after {@code time-to-live}. Pool metrics are published as
+ * {@code reactor.netty.connection.provider.*} with {@code name=auth-service}.
+ * {@code http2} and the overall {@code max-connections} only apply to the
+ * blocking client.
+ * <p>
+ * Replicas ({@code auth.service.base-urls}), hedging
+ * ({@code auth.service.hedging.*}) and the wire format
+ * ({@code auth.service.wire-format}) are configured as for
+ * {@code AuthServiceClient}.
+ * <p>
+ * Lives in the WebFlux module (rather than next to {@code AuthServiceClientConfig})
+ * because MVC applications do not have WebClient on the classpath.
+ */
+@Configuration
+public class ReactiveAuthServiceClientConfig {
+
+    private static final String POOL_NAME = "auth-service";
+
+    /**
+     * Pool for the reactive auth service client; Reactor Netty's global pool
+     * would keep connections indefinitely.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider authServiceConnectionProvider(AuthServiceTransportProperties transport) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(transport.maxConnectionsPerRoute())
+                .maxIdleTime(transport.keepAlive())
+                .maxLifeTime(transport.timeToLive())
+                .evictInBackground(transport.evictIdleAfter())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ReactiveAuthServiceClient reactiveAuthServiceClient(
+            @Value("${auth.service.base-urls:${auth.service.base-url:http://localhost:8082}}") List<String> baseUrls,
+            @Value("${auth.service.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${auth.service.hedging.min-delay:10ms}") Duration hedgingMinDelay,
+            @Value("${auth.service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${auth.service.read-timeout:3s}") Duration readTimeout,
+            @Value("${auth.service.wire-format:json}") AuthServiceWireFormat wireFormat,
+            ConnectionProvider authServiceConnectionProvider,
+            @Autowired(required = false) Optional<ClientHttpConnector> sslClientHttpConnector) {
+
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(baseUrls.get(0))
+                .defaultHeaders(headers -> headers.setAccept(wireFormat.requireAvailable().accept()))
+                .clientConnector(sslClientHttpConnector.orElseGet(() -> new ReactorClientHttpConnector(
+                        HttpClient.create(authServiceConnectionProvider)
+                                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                                .responseTimeout(readTimeout))));
+
+        if (baseUrls.size() > 1) {
+            return new ReactiveAuthServiceClient(builder.build(),
+                    new AuthServiceEndpoints(baseUrls, hedgingMinDelay), hedgingEnabled);
+        }
+        return new ReactiveAuthServiceClient(builder.build());
+    }
+}
@@ -0,0 +1,82 @@
+package org.acme.security.webflux.config;
+
+import java.time.Duration;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.acme.security.core.config.SslConfig;
+import org.acme.security.core.ssl.ReloadableSslMaterial;
+
+/**
+ * SSL configuration for the reactive auth service client.
+ * <p>
+ * Reactive counterpart of {@link SslConfig}: builds a Reactor Netty
+ * {@link ClientHttpConnector} on the same {@link ReloadableSslMaterial}, so
+ * {@code ReactiveAuthServiceClient} presents the same client certificate as
+ * the blocking client, with the same {@code auth.service.connect-timeout} and
+ * {@code auth.service.read-timeout}.
+ * <p>
+ * Connections come from the auth service pool of
+ * {@link ReactiveAuthServiceClientConfig}, which retires every connection after
+ * {@code auth.service.transport.time-to-live}. Reloaded stores only apply to new
+ * handshakes, so this bounds how long connections made with the old key
+ * material stay in use.
+ * <p>
+ * This configuration is only active when {@code auth.service.ssl.enabled=true}
+ * is set.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "auth.service.ssl.enabled", havingValue = "true")
+public class ReactiveSslConfig {
+
+    @Bean
+    public ClientHttpConnector sslClientHttpConnector(ReloadableSslMaterial authServiceSslMaterial,
+            ConnectionProvider authServiceConnectionProvider,
+            @Value("${auth.service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${auth.service.read-timeout:3s}") Duration readTimeout) throws Exception {
+
+        log.info("Configuring SSL for reactive auth service client");
+
+        SslContext sslContext = SslContextBuilder.forClient()
+                .keyManager(authServiceSslMaterial.keyManager())
+                .trustManager(authServiceSslMaterial.trustManager())
+                .build();
+        // Existing connections keep the old key material until the pool retires
+        // them (maxIdleTime / maxLifeTime)
+        authServiceSslMaterial.onReload(() -> SslConfig.invalidateSessions(sslContext.sessionContext()));
+
+        // Same trade-off as SslConfig's NoopHostnameVerifier: service hostnames
+        // (e.g., auth-service-ldap) don't match the certificate's subject alternative
+        // names (e.g., localhost). The truststore still validates the chain.
+        HttpClient httpClient = HttpClient.create(authServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .secure(spec -> spec.sslContext(sslContext)
+                        .handlerConfigurator(handler -> {
+                            SSLEngine engine = handler.engine();
+                            SSLParameters sslParameters = engine.getSSLParameters();
+                            sslParameters.setEndpointIdentificationAlgorithm(null);
+                            engine.setSSLParameters(sslParameters);
+                        }));
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
@@ -20,13 +20,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import org.acme.security.core.config.properties.HeadersProperties;
 import org.acme.security.core.model.HeaderCertificatePrincipal;
 import org.acme.security.core.model.SecurityConstants;
 import org.acme.security.core.model.UserInformation;
-import org.acme.security.core.service.AuthenticationService;
+import org.acme.security.core.util.PathMatcherUtil;
+import org.acme.security.webflux.service.ReactiveAuthenticationService;
 
 @Configuration
 @EnableWebFluxSecurity
@@ -36,7 +36,7 @@ import org.acme.security.core.service.AuthenticationService;
 @Slf4j
 public class WebFluxSecurityConfig {
 
-    private final AuthenticationService authenticationService;
+    private final ReactiveAuthenticationService reactiveAuthenticationService;
     private final HeadersProperties headersProperties;
 
     @Bean
@@ -64,27 +64,19 @@ public class WebFluxSecurityConfig {
             // Extract DN from principal (should be String from header)
             Object principal = authentication.getPrincipal();
 
-            // Wrap blocking authentication in Mono.fromCallable() to run on blocking
-            // scheduler. This prevents blocking the reactive event loop thread.
-            return Mono.fromCallable(() -> {
-                try {
-                    if (principal instanceof HeaderCertificatePrincipal headerPrincipal) {
-                        return authenticationService.createAuthenticatedAuthentication(headerPrincipal);
-                    }
-                    if (principal instanceof String principalString) {
-                        return authenticationService.createAuthenticatedAuthentication(principalString);
-                    }
-                    if (principal instanceof UserInformation userInfo) {
-                        return authenticationService.createAuthenticatedAuthentication(userInfo.getSubjectDn());
-                    }
-                    throw new BadCredentialsException(
-                            "Invalid principal type: " + principal.getClass().getName());
-                } catch (BadCredentialsException e) {
-                    throw e;
-                }
-            })
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .onErrorMap(BadCredentialsException.class, e -> e);
+            // No scheduler hop: cache hits are resolved synchronously on the event loop
+            // and returned as Mono.just; only misses call the (non-blocking) auth client.
+            if (principal instanceof HeaderCertificatePrincipal headerPrincipal) {
+                return reactiveAuthenticationService.createAuthenticatedAuthentication(headerPrincipal);
+            }
+            if (principal instanceof String principalString) {
+                return reactiveAuthenticationService.createAuthenticatedAuthentication(principalString);
+            }
+            if (principal instanceof UserInformation userInfo) {
+                return reactiveAuthenticationService.createAuthenticatedAuthentication(userInfo.getSubjectDn());
+            }
+            return Mono.error(new BadCredentialsException(
+                    "Invalid principal type: " + principal.getClass().getName()));
         };
     }
 
@@ -92,13 +84,9 @@ public class WebFluxSecurityConfig {
     @SuppressWarnings("null") // getFirst() returns nullable; we validate before use
     public ServerAuthenticationConverter serverAuthenticationConverter() {
         return exchange -> {
-            // Check if this is a public endpoint
-            String path = exchange.getRequest().getPath().value();
-            for (String publicEndpoint : SecurityConstants.PUBLIC_ENDPOINTS) {
-                if (path.matches(publicEndpoint.replace("**", ".*"))) {
-                    // Skip validation for public endpoints
-                    return Mono.empty();
-                }
+            if (PathMatcherUtil.isPublicEndpoint(exchange.getRequest().getPath().value())) {
+                // Skip validation for public endpoints
+                return Mono.empty();
             }
 
             // Validate Subject DN header
@@ -1,8 +1,5 @@
 package org.acme.security.webflux.filter;
 
-import java.util.List;
-import java.util.Map;
-
 import org.springframework.core.annotation.Order;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -44,13 +41,13 @@ public class RequestResponseLoggingWebFilter implements WebFilter {
             @NonNull ServerWebExchange exchange,
             @NonNull WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        Map<String, List<String>> normalizedHeaders = HttpUtils.collectNormalizedHeadersForLoggingPolicy(request);
-
-        if (headerLoggingPolicy.matchesIgnoreRules(normalizedHeaders)) {
+        // Only the headers with ignore rules are read; nothing is copied
+        boolean ignored = headerLoggingPolicy.matchesIgnoreRules(HttpUtils.headerView(request));
+        if (ignored) {
             AcmeHeaderLoggingExchangeAttributes.put(exchange, true);
         }
 
-        if (!headerLoggingPolicy.shouldLog(log.isDebugEnabled(), normalizedHeaders)) {
+        if (ignored || !headerLoggingPolicy.isEnabled(log.isDebugEnabled())) {
             return chain.filter(exchange);
         }
 
@@ -0,0 +1,89 @@
+package org.acme.security.webflux.service;
+
+import java.util.function.BiFunction;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+import reactor.core.publisher.Mono;
+
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.PrincipalCache;
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+import org.acme.security.core.service.AuthenticationService;
+
+/**
+ * Non-blocking authentication for the WebFlux security chain.
+ * <p>
+ * Mirrors {@link AuthenticationService} (and reuses its DN normalization,
+ * issuer check and role filtering), but resolves the user through
+ * {@link ReactiveCachedUserLookupService} so the whole flow stays on the event
+ * loop.
+ * <p>
+ * Everything up to the users cache probe runs synchronously on the calling
+ * (event loop) thread: principals already in {@link PrincipalCache} and users
+ * already in the {@code users} cache complete as {@code Mono.just}, without
+ * deferred suppliers or operator chains. Only real misses go through
+ * {@link ReactiveCachedUserLookupService#lookupUser(String)} and the auth
+ * service call.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveAuthenticationService {
+
+    private final AuthenticationService authenticationService;
+    private final ReactiveCachedUserLookupService reactiveCachedUserLookupService;
+    private final PrincipalCache principalCache;
+
+    /**
+     * Reactive variant of
+     * {@link AuthenticationService#createAuthenticatedAuthentication(HeaderCertificatePrincipal)}.
+     *
+     * @return Mono emitting the authenticated token, or erroring with
+     *         {@link BadCredentialsException}
+     */
+    public Mono<Authentication> createAuthenticatedAuthentication(HeaderCertificatePrincipal clientPrincipal) {
+        PrincipalCache.Entry cached = principalCache.get(clientPrincipal.subjectDn(), clientPrincipal.issuerDn());
+        if (cached != null
+                && cached.isBuiltFrom(reactiveCachedUserLookupService.getCachedUser(cached.normalizedDn()))) {
+            return Mono.just(cached.authentication());
+        }
+
+        return authenticate(clientPrincipal.subjectDn(), (normalizedDn, userInfo) -> authenticationService
+                .createAndCacheAuthentication(clientPrincipal, normalizedDn, userInfo));
+    }
+
+    /**
+     * Reactive variant of
+     * {@link AuthenticationService#createAuthenticatedAuthentication(String)}.
+     *
+     * @param dn the Distinguished Name from the request header
+     */
+    public Mono<Authentication> createAuthenticatedAuthentication(String dn) {
+        return authenticate(dn, (normalizedDn, userInfo) -> authenticationService.buildAuthenticatedToken(userInfo));
+    }
+
+    /**
+     * Normalizes the DN and builds the token from the users cache when it holds
+     * the user; otherwise defers to the reactive lookup. Failures on the
+     * synchronous path are returned as error signals, as the deferred path would.
+     */
+    private Mono<Authentication> authenticate(String dn, BiFunction<String, UserInfo, Authentication> tokenFactory) {
+        String normalizedDn;
+        try {
+            normalizedDn = authenticationService.normalizeSubjectDn(dn);
+            UserInfo cached = reactiveCachedUserLookupService.getCachedUser(normalizedDn);
+            if (cached != null) {
+                return Mono.just(tokenFactory.apply(normalizedDn, cached));
+            }
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        }
+
+        return reactiveCachedUserLookupService.lookupUser(normalizedDn)
+                .map(userInfo -> tokenFactory.apply(normalizedDn, userInfo));
+    }
+}
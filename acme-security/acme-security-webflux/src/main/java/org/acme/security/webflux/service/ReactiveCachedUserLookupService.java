@@ -0,0 +1,99 @@
+package org.acme.security.webflux.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import reactor.core.publisher.Mono;
+
+import org.acme.auth.client.ReactiveAuthServiceClient;
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.SingleFlight;
+import org.acme.security.core.cache.UserCache;
+import org.acme.security.core.cache.UserCacheEntry;
+import org.acme.security.core.model.SecurityConstants;
+import org.acme.security.core.resilience.AuthServiceGuard;
+import org.acme.security.core.resilience.AuthServiceUnavailableException;
+import org.acme.security.core.service.CachedUserLookupService;
+
+/**
+ * Reactive counterpart of {@link CachedUserLookupService}.
+ * <p>
+ * Uses the same {@value UserCache#USERS_CACHE} cache (and the same
+ * normalized-DN keys) through {@link UserCache}: {@code @Cacheable} on
+ * {@link Mono} return types needs an async Caffeine cache, whereas the
+ * in-memory lookup here is non-blocking as is. Cache hits complete
+ * immediately; misses go through {@link ReactiveAuthServiceClient} without
+ * leaving the event loop.
+ * <p>
+ * Concurrent misses for the same DN are coalesced via {@link SingleFlight}, and
+ * stale entries are refreshed in the background when refresh-ahead is enabled,
+ * as in the blocking service. Calls go through the same {@link AuthServiceGuard},
+ * with the same last-known-user fallback while calls are rejected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveCachedUserLookupService {
+
+    private final ReactiveAuthServiceClient reactiveAuthServiceClient;
+    private final UserCache userCache;
+    private final AuthServiceGuard authServiceGuard;
+
+    /**
+     * Looks up a user by DN, serving from the {@code users} cache when present.
+     * <p>
+     * <strong>IMPORTANT:</strong> The DN parameter should already be normalized by
+     * the caller (see {@code AuthenticationService#normalizeSubjectDn}).
+     *
+     * @param dn the normalized Distinguished Name to look up
+     * @return Mono emitting UserInfo with DN, name, and roles
+     */
+    public Mono<UserInfo> lookupUser(String dn) {
+        if (!StringUtils.hasText(dn)) {
+            return Mono.error(new BadCredentialsException(SecurityConstants.MISSING_SUBJECT_MESSAGE));
+        }
+
+        UserInfo cached = getCachedUser(dn);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        log.debug("Cache MISS: cache={}, key={}", UserCache.USERS_CACHE, dn);
+        // Concurrent misses for the same DN share one auth service call. The shared
+        // future must not be cancelled when a single subscriber goes away.
+        return Mono.fromFuture(() -> userCache.loadAsync(dn, () -> loadUser(dn)), true)
+                .onErrorResume(AuthServiceUnavailableException.class,
+                        e -> Mono.fromSupplier(() -> authServiceGuard.fallback(dn, e, userCache.getLastKnown(dn))));
+    }
+
+    /**
+     * Returns the user currently cached for a normalized DN without calling the
+     * auth service on a miss; stale entries are refreshed in the background.
+     *
+     * @param dn the normalized Distinguished Name
+     * @return the cached UserInfo, or null if not cached
+     */
+    public UserInfo getCachedUser(String dn) {
+        UserCacheEntry cached = userCache.get(dn);
+        if (cached == null) {
+            return null;
+        }
+        if (userCache.isRefreshDue(cached)) {
+            // Conditional request: a 304 keeps the cached UserInfo and restarts its TTL
+            userCache.refreshAsync(dn, () -> authServiceGuard.callAsync(
+                    () -> reactiveAuthServiceClient.revalidateUser(dn, cached.userInfo()).toFuture()));
+        }
+        return cached.userInfo();
+    }
+
+    private CompletableFuture<UserInfo> loadUser(String dn) {
+        // DN should already be normalized by caller - pass as-is to auth service
+        return authServiceGuard.callAsync(() -> reactiveAuthServiceClient.lookupUser(dn).toFuture());
+    }
+}
@@ -1,10 +1,9 @@
 package org.acme.security.webflux.util;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.util.LinkedMultiValueMap;
@@ -14,6 +13,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import org.acme.security.core.policy.AcmeHeaderLoggingPolicy;
+import org.acme.security.core.policy.HeaderView;
 
 /**
  * Utility class for HTTP operations in the WebFlux context.
@@ -46,12 +46,22 @@ public final class HttpUtils {
     }
 
     /**
-     * Header map with lowercase keys for
-     * {@link AcmeHeaderLoggingPolicy#shouldLog(boolean, Map)}.
+     * {@link HeaderView} over the request headers for
+     * {@link AcmeHeaderLoggingPolicy}; reads values on demand, without copying.
      */
-    public static Map<String, List<String>> collectNormalizedHeadersForLoggingPolicy(ServerHttpRequest request) {
-        Map<String, List<String>> raw = new LinkedHashMap<>();
-        request.getHeaders().forEach((name, values) -> raw.put(name, new ArrayList<>(values)));
-        return AcmeHeaderLoggingPolicy.normalizeHeaderMap(raw);
+    public static HeaderView headerView(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return (name, predicate) -> {
+            List<String> values = headers.get(name);
+            if (values == null) {
+                return false;
+            }
+            for (String value : values) {
+                if (predicate.test(value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
     }
 }
@@ -0,0 +1,140 @@
+package org.acme.security.webflux.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.acme.auth.client.AuthServiceClient;
+import org.acme.auth.client.ReactiveAuthServiceClient;
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.PrincipalCache;
+import org.acme.security.core.cache.UserCache;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+import org.acme.security.core.config.properties.UserCacheProperties;
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+import org.acme.security.core.resilience.AuthServiceGuard;
+import org.acme.security.core.service.AuthenticationService;
+import org.acme.security.core.service.CachedUserLookupService;
+
+/**
+ * Throughput of cache-hit authentications on a single event-loop-like thread,
+ * resolved in place versus hopped to {@link Schedulers#boundedElastic()} (the
+ * former {@code subscribeOn} in {@code reactiveAuthenticationManager()}). Not
+ * picked up by the regular build (no {@code Test} suffix); run with:
+ *
+ * <pre>
+ * mvn -pl acme-security/acme-security-webflux -am test -Dtest=ReactiveAuthenticationBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class ReactiveAuthenticationBenchmark {
+
+    private static final String ISSUER = "cn=acme ca,dc=acme,dc=org";
+    private static final int USERS = 1_000;
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCacheProperties cacheProperties = new UserCacheProperties(false, Duration.ofMinutes(5),
+            Duration.ofMinutes(30), Duration.ofMinutes(1), 100, USERS);
+    private final UserCache userCache = new UserCache(new ConcurrentMapCacheManager(UserCache.USERS_CACHE),
+            cacheProperties, meterRegistry);
+
+    private ReactiveAuthenticationService service() {
+        AuthServiceGuard guard = new AuthServiceGuard(new AuthServiceResilienceProperties(false, 100, 50, 20, 10,
+                Duration.ofSeconds(10), 3), meterRegistry);
+        PrincipalCache principalCache = new PrincipalCache(cacheProperties, meterRegistry);
+        AuthenticationService authenticationService = new AuthenticationService(
+                new CachedUserLookupService(new AuthServiceClient(RestClient.create()), userCache, guard),
+                principalCache);
+        return new ReactiveAuthenticationService(authenticationService, new ReactiveCachedUserLookupService(
+                new ReactiveAuthServiceClient(WebClient.create("http://auth")), userCache, guard), principalCache);
+    }
+
+    private List<String> cachedUsers() {
+        List<String> dns = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            String dn = "cn=user " + i + ",ou=users,dc=corp,dc=acme,dc=org";
+            userCache.putIfAbsent(dn, new UserInfo(dn, ISSUER, "User", String.valueOf(i), List.of("ACME_READ_ONLY")));
+            dns.add(dn);
+        }
+        return dns;
+    }
+
+    /**
+     * The former behavior: the whole authentication deferred to a bounded elastic
+     * worker.
+     */
+    private static Function<Integer, Mono<Authentication>> hopped(Function<Integer, Mono<Authentication>> call) {
+        return i -> Mono.defer(() -> call.apply(i)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Test
+    void cacheHits() throws Exception {
+        ReactiveAuthenticationService service = service();
+        List<String> dns = cachedUsers();
+        Function<Integer, Mono<Authentication>> byDn = i -> service
+                .createAuthenticatedAuthentication(dns.get(i % USERS));
+        Function<Integer, Mono<Authentication>> byHeaders = i -> service
+                .createAuthenticatedAuthentication(new HeaderCertificatePrincipal(dns.get(i % USERS), ISSUER));
+        Map<String, Function<Integer, Mono<Authentication>>> modes = new LinkedHashMap<>();
+        modes.put("dn", byDn);
+        modes.put("dn+boundedElastic", hopped(byDn));
+        modes.put("headers", byHeaders);
+        modes.put("headers+boundedElastic", hopped(byHeaders));
+
+        Scheduler eventLoop = Schedulers.newSingle("event-loop");
+        try {
+            for (Map.Entry<String, Function<Integer, Mono<Authentication>>> mode : modes.entrySet()) {
+                run(eventLoop, mode.getValue(), WARMUP_ITERATIONS);
+                long start = System.nanoTime();
+                long authenticated = run(eventLoop, mode.getValue(), ITERATIONS);
+                long elapsed = System.nanoTime() - start;
+                assertEquals(ITERATIONS, authenticated);
+
+                System.out.printf("%-24s %9d auth/s %6d ns/auth%n", mode.getKey(),
+                        TimeUnit.SECONDS.toNanos(1) * ITERATIONS / elapsed, elapsed / ITERATIONS);
+            }
+        } finally {
+            eventLoop.dispose();
+        }
+    }
+
+    /**
+     * Subscribes {@code iterations} authentications from a single thread, as an
+     * event loop would, and waits for all of them to complete.
+     */
+    private static long run(Scheduler eventLoop, Function<Integer, Mono<Authentication>> call, int iterations)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(iterations);
+        AtomicLong authenticated = new AtomicLong();
+        eventLoop.schedule(() -> {
+            for (int i = 0; i < iterations; i++) {
+                call.apply(i).subscribe(authentication -> authenticated.incrementAndGet(), error -> done.countDown(),
+                        done::countDown);
+            }
+        });
+        done.await(1, TimeUnit.MINUTES);
+        return authenticated.get();
+    }
+}
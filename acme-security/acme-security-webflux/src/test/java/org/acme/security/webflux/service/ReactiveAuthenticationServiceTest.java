@@ -0,0 +1,106 @@
+package org.acme.security.webflux.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import reactor.core.publisher.Mono;
+
+import org.acme.auth.client.AuthServiceClient;
+import org.acme.auth.client.ReactiveAuthServiceClient;
+import org.acme.auth.client.UserInfo;
+import org.acme.security.core.cache.PrincipalCache;
+import org.acme.security.core.cache.UserCache;
+import org.acme.security.core.config.properties.AuthServiceResilienceProperties;
+import org.acme.security.core.config.properties.UserCacheProperties;
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+import org.acme.security.core.model.UserInformation;
+import org.acme.security.core.resilience.AuthServiceGuard;
+import org.acme.security.core.service.AuthenticationService;
+import org.acme.security.core.service.CachedUserLookupService;
+
+class ReactiveAuthenticationServiceTest {
+
+    private static final String SUBJECT = "CN=John Doe, OU=Users, DC=corp, DC=acme, DC=org";
+    private static final String ISSUER = "CN=Acme CA, DC=acme, DC=org";
+    private static final String NORMALIZED = "cn=john doe,ou=users,dc=corp,dc=acme,dc=org";
+    private static final String USER_JSON = "{\"subjectDn\":\"" + NORMALIZED + "\",\"issuerDn\":\"" + ISSUER
+            + "\",\"givenName\":\"John\",\"surname\":\"Doe\",\"roles\":[\"ACME_READ_ONLY\"]}";
+
+    private final AtomicInteger authServiceCalls = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCacheProperties cacheProperties = new UserCacheProperties(false, Duration.ofMinutes(5),
+            Duration.ofMinutes(30), Duration.ofMinutes(1), 100, 100);
+    private final UserCache userCache = new UserCache(new ConcurrentMapCacheManager(UserCache.USERS_CACHE),
+            cacheProperties, meterRegistry);
+    private final ReactiveAuthenticationService service = service();
+
+    private ReactiveAuthenticationService service() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://auth")
+                .exchangeFunction(request -> {
+                    authServiceCalls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(USER_JSON)
+                            .build());
+                })
+                .build();
+        AuthServiceGuard guard = new AuthServiceGuard(new AuthServiceResilienceProperties(false, 100, 50, 20, 10,
+                Duration.ofSeconds(10), 3), meterRegistry);
+        PrincipalCache principalCache = new PrincipalCache(cacheProperties, meterRegistry);
+        AuthenticationService authenticationService = new AuthenticationService(
+                new CachedUserLookupService(new AuthServiceClient(RestClient.create()), userCache, guard), principalCache);
+        return new ReactiveAuthenticationService(authenticationService,
+                new ReactiveCachedUserLookupService(new ReactiveAuthServiceClient(webClient), userCache, guard),
+                principalCache);
+    }
+
+    @Test
+    void createAuthenticatedAuthentication_shouldServeCachedUser_withoutCallingAuthService() {
+        userCache.putIfAbsent(NORMALIZED, new UserInfo(NORMALIZED, ISSUER, "John", "Doe", List.of("ACME_READ_ONLY")));
+
+        Authentication byDn = service.createAuthenticatedAuthentication(SUBJECT).block();
+        Authentication byHeaders = service.createAuthenticatedAuthentication(
+                new HeaderCertificatePrincipal(SUBJECT, ISSUER)).block();
+
+        assertEquals(0, authServiceCalls.get());
+        assertNotNull(byDn);
+        assertEquals(NORMALIZED, assertInstanceOf(UserInformation.class, byDn.getPrincipal()).getSubjectDn());
+        assertNotNull(byHeaders);
+    }
+
+    @Test
+    void createAuthenticatedAuthentication_shouldCallAuthService_onMissOnly() {
+        service.createAuthenticatedAuthentication(SUBJECT).block();
+        service.createAuthenticatedAuthentication(SUBJECT).block();
+
+        assertEquals(1, authServiceCalls.get());
+    }
+
+    @Test
+    void createAuthenticatedAuthentication_shouldSignalError_forBlankDn() {
+        Mono<Authentication> authentication = service.createAuthenticatedAuthentication(" ");
+
+        assertThrows(BadCredentialsException.class, authentication::block);
+    }
+}
@@ -27,6 +27,7 @@ import org.acme.security.core.model.HeaderCertificatePrincipal;
 import org.acme.security.core.model.SecurityConstants;
 import org.acme.security.core.model.UserInformation;
 import org.acme.security.core.service.AuthenticationService;
+import org.acme.security.webmvc.filter.CertificateHeaderExtractionFilter;
 import org.acme.security.webmvc.filter.DnValidationFilter;
 import org.acme.security.webmvc.filter.HeaderCertificatePreAuthenticatedProcessingFilter;
 import org.acme.security.webmvc.filter.RequestResponseLoggingFilter;
@@ -45,6 +46,7 @@ public class WebMvcSecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
+            CertificateHeaderExtractionFilter certificateHeaderExtractionFilter,
             RequestResponseLoggingFilter requestResponseLoggingFilter,
             DnValidationFilter dnValidationFilter,
             HeaderCertificatePreAuthenticatedProcessingFilter headerCertificatePreAuthenticatedProcessingFilter)
@@ -52,6 +54,7 @@ public class WebMvcSecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(certificateHeaderExtractionFilter, RequestHeaderAuthenticationFilter.class)
                 .addFilterBefore(dnValidationFilter, RequestHeaderAuthenticationFilter.class)
                 .addFilterBefore(requestResponseLoggingFilter, RequestHeaderAuthenticationFilter.class)
                 .addFilterBefore(headerCertificatePreAuthenticatedProcessingFilter,
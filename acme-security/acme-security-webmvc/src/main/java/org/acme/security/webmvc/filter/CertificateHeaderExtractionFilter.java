@@ -0,0 +1,42 @@
+package org.acme.security.webmvc.filter;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.RequiredArgsConstructor;
+
+import org.acme.security.core.config.properties.HeadersProperties;
+import org.acme.security.webmvc.util.CertificateHeadersRequestAttributes;
+
+/**
+ * Pre-auth stage: classifies the request and extracts its client certificate
+ * headers once (see {@link CertificateHeadersRequestAttributes}), before
+ * {@link RequestResponseLoggingFilter}, {@link DnValidationFilter} and
+ * {@link HeaderCertificatePreAuthenticatedProcessingFilter}, which only read
+ * the result.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class CertificateHeaderExtractionFilter extends OncePerRequestFilter {
+
+    private final HeadersProperties headersProperties;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        CertificateHeadersRequestAttributes.resolve(request, headersProperties);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -17,14 +17,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.acme.security.core.config.properties.HeadersProperties;
 import org.acme.security.core.model.SecurityConstants;
-import org.acme.security.core.util.PathMatcherUtil;
+import org.acme.security.webmvc.model.CertificateHeaders;
 import org.acme.security.webmvc.model.ErrorResponse;
+import org.acme.security.webmvc.util.CertificateHeadersRequestAttributes;
 
 /**
  * Filter to validate that both the client certificate subject and issuer
  * headers are present. This runs before
  * {@link HeaderCertificatePreAuthenticatedProcessingFilter} so both headers are
- * required on protected paths.
+ * required on protected paths. Reads the headers extracted by
+ * {@link CertificateHeaderExtractionFilter}.
  */
 @Component
 @Order(2)
@@ -43,30 +45,15 @@ public class DnValidationFilter extends OncePerRequestFilter {
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
-        // Skip validation for public endpoints
-        String path = request.getRequestURI();
-        if (PathMatcherUtil.isPublicEndpoint(path)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        // Validate Subject DN header
-        String subjectDn = request.getHeader(headersProperties.subjectDn());
-        if (subjectDn == null || subjectDn.trim().isEmpty()) {
-            writeErrorResponse(response,
-                    String.format(SecurityConstants.MISSING_HEADER_MESSAGE, headersProperties.subjectDn()));
-            return;
-        }
-
-        // Validate Issuer DN header (required)
-        String issuerDn = request.getHeader(headersProperties.issuerDn());
-        if (issuerDn == null || issuerDn.trim().isEmpty()) {
+        // Public endpoints need no headers; protected ones need both
+        CertificateHeaders certificateHeaders = CertificateHeadersRequestAttributes.resolve(request,
+                headersProperties);
+        if (certificateHeaders.missingHeader() != null) {
             writeErrorResponse(response,
-                    String.format(SecurityConstants.MISSING_HEADER_MESSAGE, headersProperties.issuerDn()));
+                    String.format(SecurityConstants.MISSING_HEADER_MESSAGE, certificateHeaders.missingHeader()));
             return;
         }
 
-        // Both headers are present, continue with the filter chain
         filterChain.doFilter(request, response);
     }
 
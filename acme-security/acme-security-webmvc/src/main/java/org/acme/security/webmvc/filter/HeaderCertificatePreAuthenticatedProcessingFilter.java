@@ -3,18 +3,19 @@ package org.acme.security.webmvc.filter;
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
-import org.springframework.util.StringUtils;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.acme.security.core.config.properties.HeadersProperties;
 import org.acme.security.core.model.HeaderCertificatePrincipal;
-import org.acme.security.core.util.PathMatcherUtil;
+import org.acme.security.webmvc.model.CertificateHeaders;
+import org.acme.security.webmvc.util.CertificateHeadersRequestAttributes;
 
 /**
  * Builds a {@link HeaderCertificatePrincipal} from configured subject/issuer
  * headers as early as the pre-auth filter runs (after
- * {@link DnValidationFilter} on protected paths).
+ * {@link DnValidationFilter} on protected paths), from the headers extracted by
+ * {@link CertificateHeaderExtractionFilter}.
  */
 @Slf4j
 public class HeaderCertificatePreAuthenticatedProcessingFilter extends AbstractPreAuthenticatedProcessingFilter {
@@ -28,16 +29,12 @@ public class HeaderCertificatePreAuthenticatedProcessingFilter extends AbstractP
 
     @Override
     protected Object getPreAuthenticatedPrincipal(HttpServletRequest request) {
-        if (PathMatcherUtil.isPublicEndpoint(request.getRequestURI())) {
-            return null;
-        }
-        String subject = request.getHeader(headersProperties.subjectDn());
-        String issuer = request.getHeader(headersProperties.issuerDn());
-        if (!StringUtils.hasText(subject) || !StringUtils.hasText(issuer)) {
+        CertificateHeaders certificateHeaders = CertificateHeadersRequestAttributes.resolve(request,
+                headersProperties);
+        if (certificateHeaders.missingHeader() != null) {
             log.warn("Missing subject or issuer header");
-            return null;
         }
-        return new HeaderCertificatePrincipal(subject.trim(), issuer.trim());
+        return certificateHeaders.principal();
     }
 
     @Override
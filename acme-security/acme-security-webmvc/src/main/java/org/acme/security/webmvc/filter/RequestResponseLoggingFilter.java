@@ -1,8 +1,6 @@
 package org.acme.security.webmvc.filter;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -43,13 +41,13 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        Map<String, List<String>> normalizedHeaders = HttpUtils.collectNormalizedHeadersForLoggingPolicy(request);
-
-        if (headerLoggingPolicy.matchesIgnoreRules(normalizedHeaders)) {
+        // Only the headers with ignore rules are read; nothing is copied
+        boolean ignored = headerLoggingPolicy.matchesIgnoreRules(HttpUtils.headerView(request));
+        if (ignored) {
             AcmeHeaderLoggingRequestAttributes.put(request, true);
         }
 
-        if (!headerLoggingPolicy.shouldLog(log.isDebugEnabled(), normalizedHeaders)) {
+        if (ignored || !headerLoggingPolicy.isEnabled(log.isDebugEnabled())) {
             filterChain.doFilter(request, response);
             return;
         }
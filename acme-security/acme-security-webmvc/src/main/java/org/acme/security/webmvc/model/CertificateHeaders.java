@@ -0,0 +1,29 @@
+package org.acme.security.webmvc.model;
+
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+
+/**
+ * Outcome of classifying a request and extracting its client certificate
+ * headers, computed once per request (see
+ * {@code CertificateHeadersRequestAttributes}). Exactly one of the following
+ * holds:
+ * <ul>
+ * <li>{@code publicEndpoint}: no headers are required or read</li>
+ * <li>{@code principal} is set: both headers are present, trimmed</li>
+ * <li>{@code missingHeader} is set: the name of the first required header that
+ * is missing or blank</li>
+ * </ul>
+ */
+public record CertificateHeaders(boolean publicEndpoint, HeaderCertificatePrincipal principal,
+        String missingHeader) {
+
+    public static final CertificateHeaders PUBLIC_ENDPOINT = new CertificateHeaders(true, null, null);
+
+    public static CertificateHeaders of(HeaderCertificatePrincipal principal) {
+        return new CertificateHeaders(false, principal, null);
+    }
+
+    public static CertificateHeaders missing(String headerName) {
+        return new CertificateHeaders(false, null, headerName);
+    }
+}
@@ -0,0 +1,69 @@
+package org.acme.security.webmvc.util;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import org.acme.security.core.config.properties.HeadersProperties;
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+import org.acme.security.core.util.PathMatcherUtil;
+import org.acme.security.webmvc.model.CertificateHeaders;
+
+/**
+ * Servlet request attribute holding the request's {@link CertificateHeaders}.
+ * <p>
+ * The first filter to {@link #resolve} a request classifies it (public
+ * endpoint or not) and reads, trims and validates the subject and issuer
+ * headers; every later filter gets the same immutable result.
+ * <p>
+ * Only the initial {@link DispatcherType#REQUEST REQUEST} dispatch is cached.
+ * Error and forward dispatches target another path (e.g. the public
+ * {@code /error}), so they are classified again and never see, or replace,
+ * the original request's result.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CertificateHeadersRequestAttributes {
+
+    public static final String ATTRIBUTE_NAME = "acme.security.certificate-headers";
+
+    /**
+     * Returns the request's {@link CertificateHeaders}, extracting and storing
+     * them on first use (for the {@code REQUEST} dispatch only).
+     */
+    public static CertificateHeaders resolve(HttpServletRequest request, HeadersProperties headersProperties) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return extract(request, headersProperties);
+        }
+        if (request.getAttribute(ATTRIBUTE_NAME) instanceof CertificateHeaders certificateHeaders) {
+            return certificateHeaders;
+        }
+        CertificateHeaders certificateHeaders = extract(request, headersProperties);
+        request.setAttribute(ATTRIBUTE_NAME, certificateHeaders);
+        return certificateHeaders;
+    }
+
+    static CertificateHeaders extract(HttpServletRequest request, HeadersProperties headersProperties) {
+        if (PathMatcherUtil.isPublicEndpoint(request.getRequestURI())) {
+            return CertificateHeaders.PUBLIC_ENDPOINT;
+        }
+        String subjectDn = trimToNull(request.getHeader(headersProperties.subjectDn()));
+        if (subjectDn == null) {
+            return CertificateHeaders.missing(headersProperties.subjectDn());
+        }
+        String issuerDn = trimToNull(request.getHeader(headersProperties.issuerDn()));
+        if (issuerDn == null) {
+            return CertificateHeaders.missing(headersProperties.issuerDn());
+        }
+        return CertificateHeaders.of(new HeaderCertificatePrincipal(subjectDn, issuerDn));
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -4,9 +4,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -18,6 +15,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import org.acme.security.core.policy.AcmeHeaderLoggingPolicy;
+import org.acme.security.core.policy.HeaderView;
 
 /**
  * Utility class for HTTP operations in the WebMVC context.
@@ -56,13 +54,18 @@ public final class HttpUtils {
     }
 
     /**
-     * Header map with lowercase keys for
-     * {@link AcmeHeaderLoggingPolicy#shouldLog(boolean, Map)}.
+     * {@link HeaderView} over the request headers for
+     * {@link AcmeHeaderLoggingPolicy}; reads values on demand, without copying.
      */
-    public static Map<String, List<String>> collectNormalizedHeadersForLoggingPolicy(HttpServletRequest request) {
-        Map<String, List<String>> raw = new LinkedHashMap<>();
-        Collections.list(request.getHeaderNames())
-                .forEach(name -> raw.put(name, Collections.list(request.getHeaders(name))));
-        return AcmeHeaderLoggingPolicy.normalizeHeaderMap(raw);
+    public static HeaderView headerView(HttpServletRequest request) {
+        return (name, predicate) -> {
+            Enumeration<String> values = request.getHeaders(name);
+            while (values != null && values.hasMoreElements()) {
+                if (predicate.test(values.nextElement())) {
+                    return true;
+                }
+            }
+            return false;
+        };
     }
 }
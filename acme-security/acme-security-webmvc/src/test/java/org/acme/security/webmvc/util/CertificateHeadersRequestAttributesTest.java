@@ -0,0 +1,87 @@
+package org.acme.security.webmvc.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.DispatcherType;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import org.acme.security.core.config.properties.HeadersProperties;
+import org.acme.security.core.model.HeaderCertificatePrincipal;
+import org.acme.security.core.model.SecurityConstants;
+import org.acme.security.webmvc.model.CertificateHeaders;
+
+class CertificateHeadersRequestAttributesTest {
+
+    private static final String SUBJECT = "CN=John Doe, OU=Users, DC=corp, DC=acme, DC=org";
+    private static final String ISSUER = "CN=Acme CA, DC=acme, DC=org";
+
+    private final HeadersProperties headersProperties = new HeadersProperties(
+            SecurityConstants.SSL_CLIENT_SUBJECT_HEADER, SecurityConstants.SSL_CLIENT_ISSUER_HEADER);
+
+    private static MockHttpServletRequest request(String path, String subject, String issuer) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (subject != null) {
+            request.addHeader(SecurityConstants.SSL_CLIENT_SUBJECT_HEADER, subject);
+        }
+        if (issuer != null) {
+            request.addHeader(SecurityConstants.SSL_CLIENT_ISSUER_HEADER, issuer);
+        }
+        return request;
+    }
+
+    @Test
+    void resolve_shouldExtractTrimmedPrincipal_once() {
+        MockHttpServletRequest request = request("/api/v1/books", " " + SUBJECT + " ", ISSUER);
+
+        CertificateHeaders first = CertificateHeadersRequestAttributes.resolve(request, headersProperties);
+        request.removeHeader(SecurityConstants.SSL_CLIENT_SUBJECT_HEADER);
+        CertificateHeaders second = CertificateHeadersRequestAttributes.resolve(request, headersProperties);
+
+        assertSame(first, second);
+        assertFalse(first.publicEndpoint());
+        assertEquals(new HeaderCertificatePrincipal(SUBJECT, ISSUER), first.principal());
+        assertNull(first.missingHeader());
+    }
+
+    @Test
+    void resolve_shouldClassifyErrorDispatchAgain_withoutReusingPrincipal() {
+        MockHttpServletRequest request = request("/api/v1/books", SUBJECT, ISSUER);
+        CertificateHeaders original = CertificateHeadersRequestAttributes.resolve(request, headersProperties);
+
+        request.setDispatcherType(DispatcherType.ERROR);
+        request.setRequestURI("/error");
+        CertificateHeaders error = CertificateHeadersRequestAttributes.resolve(request, headersProperties);
+
+        assertTrue(error.publicEndpoint());
+        assertNull(error.principal());
+        assertSame(original, request.getAttribute(CertificateHeadersRequestAttributes.ATTRIBUTE_NAME));
+    }
+
+    @Test
+    void resolve_shouldReportFirstMissingHeader() {
+        CertificateHeaders noSubject = CertificateHeadersRequestAttributes
+                .resolve(request("/api/v1/books", "  ", null), headersProperties);
+        CertificateHeaders noIssuer = CertificateHeadersRequestAttributes
+                .resolve(request("/api/v1/books", SUBJECT, ""), headersProperties);
+
+        assertEquals(SecurityConstants.SSL_CLIENT_SUBJECT_HEADER, noSubject.missingHeader());
+        assertEquals(SecurityConstants.SSL_CLIENT_ISSUER_HEADER, noIssuer.missingHeader());
+        assertNull(noIssuer.principal());
+    }
+
+    @Test
+    void resolve_shouldSkipHeaders_forPublicEndpoints() {
+        CertificateHeaders certificateHeaders = CertificateHeadersRequestAttributes
+                .resolve(request("/actuator/health", null, null), headersProperties);
+
+        assertTrue(certificateHeaders.publicEndpoint());
+        assertNull(certificateHeaders.principal());
+        assertNull(certificateHeaders.missingHeader());
+    }
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+#
+# EXPLAIN-verifies the auth-service-db user lookup against a large users table.
+#
+# Seeds USER_COUNT synthetic users (default 100000) inside a transaction, runs
+# EXPLAIN ANALYZE for the case-insensitive lookup, and rolls back. The plan must
+# be an index scan on idx_users_subject_dn_canonical; the legacy
+# LOWER(subject_dn) predicate is shown for comparison (sequential scan).
+#
+# Usage: scripts/db/explain-user-lookup.sh [USER_COUNT]
+# Requires the postgres-auth container (docker compose up -d postgres-auth) with
+# the acme-auth-service-db Flyway migrations applied.
+
+set -euo pipefail
+
+USER_COUNT="${1:-100000}"
+CONTAINER="${AUTH_DB_CONTAINER:-acme-postgres-auth}"
+LOOKUP_DN="CN=User$((USER_COUNT / 2)),OU=Bench,OU=Users,DC=Corp,DC=Acme,DC=Org"
+
+docker exec -i "${CONTAINER}" psql -U acme_user -d acme_auth -v ON_ERROR_STOP=1 <<SQL
+BEGIN;
+
+INSERT INTO users (subject_dn, issuer_dn, given_name, surname, created_at, created_by)
+SELECT 'cn=user' || n || ',ou=bench,ou=users,dc=corp,dc=acme,dc=org',
+       'CN=Acme Intermediate CA,O=Acme Corp,C=US', 'User', n::text, NOW(), 'bench'
+FROM generate_series(1, ${USER_COUNT}) AS n;
+
+INSERT INTO user_roles (user_id, role_name)
+SELECT id, 'ACME_READ_ONLY' FROM users WHERE created_by = 'bench';
+
+ANALYZE users;
+ANALYZE user_roles;
+
+\echo 'Canonical column lookup (UserInfoQueryRepository.findByDnIgnoreCase):'
+EXPLAIN (ANALYZE, COSTS OFF)
+SELECT u.subject_dn, u.subject_dn_canonical, u.issuer_dn, u.given_name, u.surname,
+       COALESCE(array_agg(r.role_name ORDER BY r.role_name)
+                FILTER (WHERE r.role_name IS NOT NULL), '{}'::varchar[]) AS roles
+FROM users u
+LEFT JOIN user_roles r ON r.user_id = u.id
+WHERE u.subject_dn_canonical = LOWER('${LOOKUP_DN}')
+GROUP BY u.id;
+
+\echo 'Legacy LOWER(subject_dn) predicate, for comparison:'
+EXPLAIN (ANALYZE, COSTS OFF)
+SELECT u.*, r.*
+FROM users u
+LEFT JOIN user_roles r ON r.user_id = u.id
+WHERE LOWER(u.subject_dn) = LOWER('${LOOKUP_DN}');
+
+ROLLBACK;
+SQL